@@ -0,0 +1,102 @@
+package matrix.benchmarks;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import matrix.util.Fraction;
+import matrix.util.Fraction.Normalization;
+
+/***The arithmetic of fractions, on operands that fit in longs and on operands of the given number of bits, with the results of big operands reduced eagerly or lazily.*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FractionBenchmark {
+	
+	//the number of operand pairs, cycled through such that the operands are not constant
+	private static final int COUNT = 1024;
+	
+	@Param({"8", "62", "256"})
+	public int bits;
+	
+	@Param({"EAGER", "LAZY"})
+	public Normalization normalization;
+	
+	//operands
+	private Fraction[] left, right;
+	private BigInteger[] numerators, denominators;
+	private int i;
+	
+	@Setup
+	public void setup() {
+		Fraction.setNormalization(normalization);
+		Random random = new Random(42);
+		left = new Fraction[COUNT];
+		right = new Fraction[COUNT];
+		numerators = new BigInteger[COUNT];
+		denominators = new BigInteger[COUNT];
+		
+		for (int j = 0; j < COUNT; j++) {
+			left[j] = Fraction.simplify(signed(random), new BigInteger(bits - 1, random).add(BigInteger.ONE));
+			right[j] = Fraction.simplify(signed(random), new BigInteger(bits - 1, random).add(BigInteger.ONE));
+			
+			//a common factor, such that simplifying has work to do
+			BigInteger factor = new BigInteger(bits / 2, random).add(BigInteger.TWO);
+			numerators[j] = signed(random).multiply(factor);
+			denominators[j] = new BigInteger(bits - 1, random).add(BigInteger.ONE).multiply(factor);
+		}
+	}
+	
+	/***Returns a random integer of at most bits - 1 bits, with a random sign.*/
+	private BigInteger signed(Random random) {
+		BigInteger value = new BigInteger(bits - 1, random);
+		return random.nextBoolean() ? value.negate() : value;
+	}
+	
+	/***Returns the next index of the operands.*/
+	private int next() {return i = (i + 1) & (COUNT - 1);}
+	
+	@Benchmark
+	public Fraction add() {
+		int j = next();
+		return left[j].add(right[j]);
+	}
+	
+	@Benchmark
+	public Fraction multi() {
+		int j = next();
+		return left[j].multi(right[j]);
+	}
+	
+	@Benchmark
+	public Fraction div() {
+		int j = next();
+		return left[j].div(right[j]);
+	}
+	
+	@Benchmark
+	public Fraction simplify() {
+		int j = next();
+		return Fraction.simplify(numerators[j], denominators[j]);
+	}
+	
+	@Benchmark
+	public String render() {
+		return Fraction.toString(left[next()]);
+	}
+}
@@ -0,0 +1,83 @@
+package matrix.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import matrix.benchmarks.SystemGenerator.Kind;
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+import matrix.util.inputOutput.MatrixInput;
+import matrix.util.linearSystems.LinearSystem;
+
+/***Parsing and rendering generated systems of the given kind and size.*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputOutputBenchmark {
+	
+	@Param({"DENSE", "INTEGER", "RATIONAL"})
+	public Kind kind;
+	
+	@Param({"100", "400"})
+	public int size;
+	
+	//the system, and its rows as text with the elements separated by single spaces
+	private LinearSystem system;
+	private String text;
+	
+	@Setup
+	public void setup() {
+		system = SystemGenerator.generate(kind, size, 1);
+		text = FractionMatrix.toString(system, (int r, int c, Fraction f) -> 
+				f.toString() + (c == system.getWidth() - 1 ? "\n" : " "));
+	}
+	
+	@Benchmark
+	public FractionMatrix parse() {
+		return FractionMatrix.parse(text.substring(0, text.length() - 1), "\n", " ");
+	}
+	
+	@Benchmark
+	public FractionMatrix readMatrix() throws IOException {
+		return MatrixInput.readMatrix(new StringReader(text));
+	}
+	
+	@Benchmark
+	public String renderString() {
+		return LinearSystem.toString(system);
+	}
+	
+	@Benchmark
+	public String renderDoubleString() {
+		return LinearSystem.toDoubleString(system, 2);
+	}
+	
+	@Benchmark
+	public String renderLatex() {
+		return LinearSystem.asLatex(system);
+	}
+	
+	@Benchmark
+	public Writer appendString() throws IOException {
+		Writer out = Writer.nullWriter();
+		LinearSystem.appendString(system, out);
+		return out;
+	}
+}
@@ -0,0 +1,60 @@
+package matrix.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import matrix.benchmarks.SystemGenerator.Kind;
+import matrix.util.Fraction;
+import matrix.util.linearSystems.LinearSystem;
+
+/***The elementary row operations of LinearSystem, on rows of the given size.
+ * Every addition is followed by the opposite addition, such that the rows do not grow from one invocation to the next.*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowOperationBenchmark {
+	
+	@Param({"DENSE", "INTEGER", "RATIONAL"})
+	public Kind kind;
+	
+	@Param({"100", "1000"})
+	public int size;
+	
+	//the system, and the scalars of the additions
+	private LinearSystem system;
+	private Fraction scalar, negated;
+	
+	@Setup
+	public void setup() {
+		system = SystemGenerator.generate(kind, size, 1);
+		scalar = system.getElement(1, 0).div(system.getElement(0, 0)).negate();
+		negated = scalar.negate();
+	}
+	
+	@Benchmark
+	public LinearSystem addRows() {
+		LinearSystem.addRows(system, 0, 1, scalar);
+		LinearSystem.addRows(system, 0, 1, negated);
+		return system;
+	}
+	
+	@Benchmark
+	public LinearSystem swapRows() {
+		LinearSystem.swapRows(system, 0, 1);
+		return system;
+	}
+}
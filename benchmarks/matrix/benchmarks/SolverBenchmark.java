@@ -0,0 +1,87 @@
+package matrix.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import matrix.benchmarks.SystemGenerator.Kind;
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.linearSystems.solvers.SystemSolver;
+import matrix.util.linearSystems.solvers.SystemSolver.Method;
+
+/***Silently solving generated systems and the test matrices of RunSolver with each method.
+ * The system is copied before every invocation, outside of the measurement.*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+	
+	/***A generated system of the given kind and size.*/
+	@State(Scope.Thread)
+	public static class Generated {
+		@Param({"GAUSS", "PARALLEL_GAUSS", "COMMON_DENOMINATOR_GAUSS", "BAREISS", "MODULAR", "DIXON", "SPARSE", "DOUBLE_REFINEMENT", "STRUCTURED", "BLOCKS"})
+		public Method method;
+		
+		@Param({"DENSE", "SPARSE", "INTEGER", "RATIONAL"})
+		public Kind kind;
+		
+		@Param({"10", "30", "60"})
+		public int size;
+		
+		//the generated system, and the copy that is solved
+		private LinearSystem original, system;
+		
+		@Setup(Level.Trial)
+		public void generate() {original = SystemGenerator.generate(kind, size, 1);}
+		
+		@Setup(Level.Invocation)
+		public void copy() {system = original.clone();}
+	}
+	
+	/***One of the test matrices of RunSolver.*/
+	@State(Scope.Thread)
+	public static class Fixture {
+		@Param({"GAUSS", "PARALLEL_GAUSS", "COMMON_DENOMINATOR_GAUSS", "BAREISS", "MODULAR", "DIXON", "SPARSE", "DOUBLE_REFINEMENT", "STRUCTURED", "BLOCKS"})
+		public Method method;
+		
+		@Param({"0", "1", "2", "3", "4", "5", "6", "7", "8"})
+		public int fixture;
+		
+		//the test matrix, and the copy that is solved
+		private LinearSystem original, system;
+		
+		@Setup(Level.Trial)
+		public void load() {
+			List<LinearSystem> fixtures = SystemGenerator.fixtures();
+			original = fixtures.get(fixture);
+		}
+		
+		@Setup(Level.Invocation)
+		public void copy() {system = original.clone();}
+	}
+	
+	@Benchmark
+	public boolean generated(Generated state) {
+		return SystemSolver.solve(state.system, true, state.method);
+	}
+	
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public boolean fixture(Fixture state) {
+		return SystemSolver.solve(state.system, true, state.method);
+	}
+}
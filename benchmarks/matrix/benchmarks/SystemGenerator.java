@@ -0,0 +1,108 @@
+package matrix.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+import matrix.util.inputOutput.MatrixInput;
+import matrix.util.linearSystems.LinearSystem;
+
+/***Generates the linear systems of the benchmarks, seeded such that every run measures the same systems.*/
+public class SystemGenerator {
+	
+	/***The kinds of generated systems, all square with one equality column.*/
+	public enum Kind {
+		/***Every element is a fraction with a small numerator and denominator.*/
+		DENSE,
+		/***About SPARSE_ROW_SIZE elements per row, with a dominant diagonal such that the system is nonsingular.*/
+		SPARSE,
+		/***Every element is a small integer.*/
+		INTEGER,
+		/***Every element is a fraction with a numerator and denominator of about RATIONAL_BITS bits.*/
+		RATIONAL
+	}
+	
+	//the number of off-diagonal elements of a sparse row, and the size of the rational-heavy elements
+	public static final int SPARSE_ROW_SIZE = 4;
+	public static final int RATIONAL_BITS = 32;
+	
+	//the resource holding the test matrices of RunSolver
+	private static final String FIXTURES = "fixtures.txt";
+	
+	/***Returns a size x (size + 1) system of the given kind, generated from the seed.*/
+	public static LinearSystem generate(Kind kind, int size, long seed) {
+		Random random = new Random(seed);
+		Fraction[][] elements = new Fraction[size][size + 1];
+		
+		for (int r = 0; r < size; r++) {
+			for (int c = 0; c <= size; c++) {
+				switch(kind) {
+				case DENSE: elements[r][c] = smallFraction(random); break;
+				case SPARSE: elements[r][c] = new Fraction(0); break;
+				case INTEGER: elements[r][c] = new Fraction(random.nextInt(19) - 9); break;
+				case RATIONAL: elements[r][c] = bigFraction(random); break;
+				}
+			}
+		}
+		
+		if(kind == Kind.SPARSE) {
+			for (int r = 0; r < size; r++) {
+				long sum = 0;
+				for (int i = 0; i < SPARSE_ROW_SIZE && size > 1; i++) {
+					int c = random.nextInt(size);
+					if(c == r || elements[r][c].signum() != 0) continue;
+					int value = random.nextInt(19) - 9;
+					elements[r][c] = new Fraction(value);
+					sum += Math.abs(value);
+				}
+				elements[r][r] = new Fraction(sum + 1 + random.nextInt(9));
+				elements[r][size] = smallFraction(random);
+			}
+		}
+		
+		return new LinearSystem(new FractionMatrix(elements), size);
+	}
+	
+	/***Returns a fraction with a numerator in [-99, 99] and a denominator in [1, 12].*/
+	private static Fraction smallFraction(Random random) {
+		return Fraction.simplify(random.nextInt(199) - 99, 1 + random.nextInt(12));
+	}
+	
+	/***Returns a fraction with a numerator and denominator of at most RATIONAL_BITS bits.*/
+	private static Fraction bigFraction(Random random) {
+		BigInteger numerator = new BigInteger(RATIONAL_BITS, random);
+		if(random.nextBoolean()) numerator = numerator.negate();
+		return Fraction.simplify(numerator, new BigInteger(RATIONAL_BITS, random).add(BigInteger.ONE));
+	}
+	
+	/***Returns the test matrices of RunSolver, as total matrices with one equality column.*/
+	public static List<LinearSystem> fixtures() {
+		String text;
+		try(BufferedReader in = new BufferedReader(new InputStreamReader(SystemGenerator.class.getResourceAsStream(FIXTURES), StandardCharsets.UTF_8))) {
+			text = in.lines().collect(Collectors.joining("\n"));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		List<LinearSystem> systems = new ArrayList<>();
+		for (String block : text.split("\n\\s*\n")) {
+			try {
+				FractionMatrix matrix = MatrixInput.readMatrix(new StringReader(block));
+				systems.add(new LinearSystem(matrix, matrix.getWidth() - 1));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return systems;
+	}
+}
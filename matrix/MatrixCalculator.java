@@ -5,6 +5,7 @@ import java.util.Scanner;
 import matrix.util.Fraction;
 import matrix.util.FractionMatrix;
 import matrix.util.inputOutput.MatrixInput;
+import matrix.util.linearSystems.solvers.Inversion;
 
 public class MatrixCalculator {
 
@@ -19,6 +20,13 @@ public class MatrixCalculator {
 		System.out.println("Operator:");
 		String s = in.nextLine();
 		
+		//the inverse has no second matrix
+		if(s.equals("^-1")) {
+			in.close();
+			System.out.printf("Matrix C = A^-1:\n%s=\n%s", toString(a), toString(Inversion.inverse(a)));
+			return;
+		}
+		
 		//inputting second matrix or fraction
 		System.out.println("\nMatrix B:");
 		FractionMatrix b = new FractionMatrix(MatrixInput.readMatrix());
@@ -30,10 +38,12 @@ public class MatrixCalculator {
 		case "*": 
 			if(a.getWidth() == 1 && a.getHeight() == 1) c = FractionMatrix.scale(b, a.getElement(0, 0));
 			else if(b.getWidth() == 1 && b.getHeight() == 1) c = FractionMatrix.scale(a, b.getElement(0, 0));
+			else c = FractionMatrix.multi(a, b);
 			break;
 		case "/": 
-			if(a.getWidth() == 1 && a.getHeight() == 1) c = FractionMatrix.scale(b, a.getElement(0, 0).powNegOne());
-			else if(b.getWidth() == 1 && b.getHeight() == 1) c = FractionMatrix.scale(a, b.getElement(0, 0).powNegOne());
+			if(b.getWidth() == 1 && b.getHeight() == 1) c = FractionMatrix.scale(a, b.getElement(0, 0).powNegOne());
+			else if(a.getWidth() == 1 && a.getHeight() == 1) c = FractionMatrix.scale(Inversion.inverse(b), a.getElement(0, 0));
+			else c = Inversion.divide(a, b);
 			break;
 		case "+": c = FractionMatrix.add(a, b); break;
 		case "-": c = FractionMatrix.add(a, FractionMatrix.scale(b, new Fraction(-1))); break;
@@ -49,14 +59,14 @@ public class MatrixCalculator {
 			break;
 		}
 		
-		System.out.printf("Matrix C = A %s B:\n%s%s\n%s=\n%s", 
-				s, 
-				a.getWidth() == 1 && a.getHeight() == 1 ? Fraction.toString(a.getElement(0, 0)) + "\n" : FractionMatrix.toString(a),
-				s,
-				b.getWidth() == 1 && b.getHeight() == 1 ? Fraction.toString(b.getElement(0, 0)) + "\n" : FractionMatrix.toString(b),
-				c.getWidth() == 1 && c.getHeight() == 1 ? Fraction.toString(c.getElement(0, 0)) + "\n" : FractionMatrix.toString(c));
+		System.out.printf("Matrix C = A %s B:\n%s%s\n%s=\n%s", s, toString(a), s, toString(b), toString(c));
 		
 	}
+	
+	/***Returns the matrix as it is printed, a 1x1 matrix as a single fraction.*/
+	private static String toString(FractionMatrix m) {
+		return m.getWidth() == 1 && m.getHeight() == 1 ? Fraction.toString(m.getElement(0, 0)) + "\n" : FractionMatrix.toString(m);
+	}
 
 
 }
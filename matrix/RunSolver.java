@@ -4,8 +4,10 @@ import java.util.Scanner;
 
 import matrix.util.*;
 import matrix.util.inputOutput.MatrixInput;
+import matrix.util.inputOutput.Snitch;
 import matrix.util.linearSystems.LinearSystem;
 import matrix.util.linearSystems.solvers.SystemSolver;
+import matrix.util.linearSystems.solvers.SystemSolver.Method;
 
 public class RunSolver {
 	public static void main(String[] args) {
@@ -15,6 +17,14 @@ public class RunSolver {
 		System.out.println("Solve system silently? (Y/n)");
 		boolean isSilent = Character.toLowerCase((in.nextLine() + " ").charAt(0)) != 'n';
 		
+		//determining checkpoints
+		int checkpointInterval = Snitch.FINAL_ONLY;
+		if(!isSilent) {
+			System.out.println("Print the system every how many steps? (only the final system)");
+			String line = in.nextLine().trim();
+			if(!line.isEmpty()) checkpointInterval = Math.max(1, Integer.parseInt(line));
+		}
+		
 		boolean correctMatrix = false;
 		LinearSystem system = null;
 		do {
@@ -33,7 +43,7 @@ public class RunSolver {
 
 		//solving matrix
 		System.out.println("\nSolving...\n");
-		boolean isSolved = SystemSolver.solve(system, isSilent);
+		boolean isSolved = SystemSolver.solve(system, isSilent, Method.GAUSS, checkpointInterval);
 		
 		//outputting matrix
 		if(isSolved) {
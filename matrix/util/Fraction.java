@@ -5,38 +5,134 @@ import java.math.BigInteger;
 @SuppressWarnings("serial")
 public class Fraction extends Number{
 
-	// : numerator / denominator
-	private BigInteger numerator, denominator; 
+	/***When the results of operations on big integers are reduced to their simplest form.*/
+	public enum Normalization {
+		/***Every result is reduced.*/
+		EAGER,
+		/***A result is kept unreduced (pending) until its numerator or denominator passes the lazy threshold, or until it is read (numerator(), denominator(), toString(), etc.). 
+		 * Arithmetic, signum() and isOne() work on pending fractions without reducing them.*/
+		LAZY
+	}
+	
+	//the normalization of the results of operations, and the bit-length above which a lazy result is reduced anyway
+	private static volatile Normalization normalization = Normalization.EAGER;
+	private static volatile int lazyThreshold = 1 << 10;
+	
+	// : numerator / denominator (kept in longs until a value no longer fits, then in big integers)
+	private long num, den;
+	private BigInteger bigNum, bigDen; 
+	
+	//whether this is an unreduced result, and its simplest form once it has been read
+	private boolean isPending;
+	private volatile Fraction simplest;
+	
+	public BigInteger numerator() {Fraction f = reduced(); return f.bigNum != null ? f.bigNum : BigInteger.valueOf(f.num);}
+	public BigInteger denominator() {Fraction f = reduced(); return f.bigDen != null ? f.bigDen : BigInteger.valueOf(f.den);}
+	
+	//the numerator and denominator as they are held, which for a pending fraction is not the simplest form
+	private BigInteger rawNumerator() {return bigNum != null ? bigNum : BigInteger.valueOf(num);}
+	private BigInteger rawDenominator() {return bigDen != null ? bigDen : BigInteger.valueOf(den);}
+	
+	/***Sets the normalization of the results of later operations.*/
+	public static void setNormalization(Normalization normalization) {Fraction.normalization = normalization;}
 	
-	public BigInteger numerator() {return numerator;}
-	public BigInteger denominator() {return denominator;}
+	/***Returns the normalization of the results of operations.*/
+	public static Normalization getNormalization() {return normalization;}
+	
+	/***Sets the bit-length above which the result of an operation is reduced under lazy normalization.*/
+	public static void setLazyThreshold(int bits) {lazyThreshold = bits;}
+	
+	/***Returns the bit-length above which the result of an operation is reduced under lazy normalization.*/
+	public static int getLazyThreshold() {return lazyThreshold;}
 
 	/***A fraction.*/
 	public Fraction(long numerator, long denominator) {
-		this.numerator = BigInteger.valueOf(numerator);
-		this.denominator = BigInteger.valueOf(denominator);
+		assign(numerator, denominator);
 	}
 
 	/***A fraction.*/
 	public Fraction(long value) {
-		this.numerator = BigInteger.valueOf(value);
-		this.denominator = BigInteger.ONE;
+		assign(value, 1);
 	}
 	
 	/***A fraction.*/
 	public Fraction(BigInteger numerator, BigInteger denominator) {
-		this.numerator = numerator;
-		this.denominator = denominator;
+		assign(numerator, denominator);
 	}
 	
 	/***Given a single long, the fraction is assumed to be value/1.*/
 	public Fraction(BigInteger value) {
-		this.numerator = value;
-		this.denominator = BigInteger.ONE;
+		assign(value, BigInteger.ONE);
+	}
+	
+	/***Copies the representation of the given fraction.*/
+	private Fraction(Fraction f) {
+		num = f.num;
+		den = f.den;
+		bigNum = f.bigNum;
+		bigDen = f.bigDen;
+		isPending = f.isPending;
+	}
+	
+	/***Stores the values in longs, unless Long.MIN_VALUE is involved (which cannot be negated).*/
+	private void assign(long numerator, long denominator) {
+		if(numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE) {
+			bigNum = BigInteger.valueOf(numerator);
+			bigDen = BigInteger.valueOf(denominator);
+		}else {
+			num = numerator;
+			den = denominator;
+		}
+	}
+	
+	/***Stores the values in longs if both fit, otherwise as big integers.*/
+	private void assign(BigInteger numerator, BigInteger denominator) {
+		if(numerator.bitLength() < Long.SIZE - 1 && denominator.bitLength() < Long.SIZE - 1) {
+			num = numerator.longValue();
+			den = denominator.longValue();
+		}else {
+			bigNum = numerator;
+			bigDen = denominator;
+		}
+	}
+	
+	/***Returns -1, 0 or 1 as the fraction is negative, zero or positive.*/
+	public int signum() {return isSmall() ? Long.signum(num) * Long.signum(den) : bigNum.signum() * bigDen.signum();}
+	
+	/***Returns true if the fraction equals one, without reducing it.*/
+	public boolean isOne() {return isSmall() ? num == den : bigNum.equals(bigDen);}
+	
+	/***Returns true if the fraction is held in longs.*/
+	private boolean isSmall() {return bigNum == null;}
+	
+	/***Returns the simplest form of a pending fraction, otherwise the fraction itself.*/
+	private Fraction reduced() {
+		if(!isPending) return this;
+		
+		Fraction f = simplest;
+		if(f == null) simplest = f = simplify();
+		return f;
+	}
+	
+	/***Returns the result of an operation on big integers, which is reduced unless the normalization is lazy and neither the numerator nor the denominator has passed the threshold.*/
+	private static Fraction normalize(BigInteger numerator, BigInteger denominator) {
+		if(normalization == Normalization.EAGER || Math.max(numerator.bitLength(), denominator.bitLength()) > lazyThreshold) return simplify(numerator, denominator);
+		
+		Fraction f = new Fraction(numerator, denominator);
+		f.isPending = true;
+		return f;
+	}
+	
+	/***Marks the given fraction as pending if this is, such that a fraction derived from a pending one is reduced when it is read.*/
+	private Fraction derive(Fraction f) {
+		f.isPending = isPending;
+		return f;
 	}
 
 	/***Returns the simplest form of the current fraction.*/
 	public static Fraction simplify(BigInteger numerator, BigInteger denominator) {
+		if(numerator.bitLength() < Long.SIZE - 1 && denominator.bitLength() < Long.SIZE - 1) return simplify(numerator.longValue(), denominator.longValue());
+		
 		BigInteger gcd = numerator.gcd(denominator);
 		boolean negate = !denominator.abs().equals(denominator);
 		
@@ -44,18 +140,40 @@ public class Fraction extends Number{
 		return new Fraction(numerator.divide(gcd), denominator.divide(gcd));
 	}
 	
+	/***Returns the simplest form of the given fraction, using the same rules as simplify(BigInteger, BigInteger).*/
+	public static Fraction simplify(long numerator, long denominator) {
+		if(numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE) return simplify(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+		
+		long gcd = gcd(Math.abs(numerator), Math.abs(denominator));
+		if(denominator < 0) return new Fraction(-(numerator / gcd), -(denominator / gcd));
+		return new Fraction(numerator / gcd, denominator / gcd);
+	}
+	
 	/***Returns the simplest form of the current fraction.*/
-	public Fraction simplify() {return simplify(this.numerator, this.denominator);}
-	
-//	/***Returns the greatest common denominator.*/
-//	private long gcd(long a, long b) {
-//	    while(b != 0) {
-//	    	long t = b;
-//	        b = a % b;
-//	        a = t;
-//	    }
-//	    return a;
-//	}
+	public Fraction simplify() {
+		if(isSmall()) return simplify(num, den);
+		return simplify(bigNum, bigDen);
+	}
+	
+	/***Returns the greatest common denominator of two non-negative longs (binary gcd).*/
+	private static long gcd(long a, long b) {
+		if(a == 0) return b;
+		if(b == 0) return a;
+		
+		int shift = Long.numberOfTrailingZeros(a | b);
+		a >>= Long.numberOfTrailingZeros(a);
+		do {
+			b >>= Long.numberOfTrailingZeros(b);
+			if(a > b) {
+				long t = b;
+				b = a;
+				a = t;
+			}
+			b -= a;
+		}while(b != 0);
+		
+		return a << shift;
+	}
 	
 	/***Sums together a number of fractions.*/
 	public static Fraction sum(Fraction... f) throws ArithmeticException{
@@ -73,51 +191,82 @@ public class Fraction extends Number{
 	public Fraction add(Fraction f) throws ArithmeticException {
 
 		// n1/d1 + n2/d2 = (n1*d2 + n2*d1) / (d1 * d2)
-		return simplify(
-				numerator.multiply(f.denominator).add(f.numerator.multiply(denominator)),
-				denominator.multiply(f.denominator)).simplify();
+		if(isSmall() && f.isSmall()) {
+			try {
+				return simplify(
+						Math.addExact(Math.multiplyExact(num, f.den), Math.multiplyExact(f.num, den)), 
+						Math.multiplyExact(den, f.den));
+			}catch(ArithmeticException overflow) {}
+		}
+		
+		return normalize(
+				rawNumerator().multiply(f.rawDenominator()).add(f.rawNumerator().multiply(rawDenominator())),
+				rawDenominator().multiply(f.rawDenominator()));
 	}
 	
 	/***Subtracts two given fractions, such that a common denominator is found.*/
 	public Fraction sub(Fraction f) throws ArithmeticException {
 		
 		// n1/d1 - n2/d2 = (n1*d2 - n2*d1) / (d1 * d2)
-		return simplify(
-				numerator.multiply(f.denominator).subtract(f.numerator.multiply(denominator)),
-				denominator.multiply(f.denominator));
+		if(isSmall() && f.isSmall()) {
+			try {
+				return simplify(
+						Math.subtractExact(Math.multiplyExact(num, f.den), Math.multiplyExact(f.num, den)), 
+						Math.multiplyExact(den, f.den));
+			}catch(ArithmeticException overflow) {}
+		}
+		
+		return normalize(
+				rawNumerator().multiply(f.rawDenominator()).subtract(f.rawNumerator().multiply(rawDenominator())),
+				rawDenominator().multiply(f.rawDenominator()));
 	}
 
 	/***Multiplying the current fraction with the given.*/
 	public Fraction multi(Fraction f) throws ArithmeticException {
 		
 		// n1/d1 * n2/d2 = (n1 * n2) / (d1 * d2)
-		return simplify(
-				numerator.multiply(f.numerator),
-				denominator.multiply(f.denominator));
+		if(isSmall() && f.isSmall()) {
+			try {
+				return simplify(Math.multiplyExact(num, f.num), Math.multiplyExact(den, f.den));
+			}catch(ArithmeticException overflow) {}
+		}
+		
+		return normalize(
+				rawNumerator().multiply(f.rawNumerator()),
+				rawDenominator().multiply(f.rawDenominator()));
 	}
 	
 	/***Divides the current fraction with the given such that no rounding error occur.*/
 	public Fraction div(Fraction f) throws ArithmeticException {
 		
 		// n1/d1 / n2/d2 = (n1 * d2) / (d1 * n2)
-		return simplify(
-				numerator.multiply(f.denominator),
-				denominator.multiply(f.numerator));
+		if(isSmall() && f.isSmall()) {
+			try {
+				return simplify(Math.multiplyExact(num, f.den), Math.multiplyExact(den, f.num));
+			}catch(ArithmeticException overflow) {}
+		}
+		
+		return normalize(
+				rawNumerator().multiply(f.rawDenominator()),
+				rawDenominator().multiply(f.rawNumerator()));
 	}
 	
 	/***Multiplies the current fraction with negative 1.*/
 	public Fraction negate() {
-		return new Fraction(numerator.negate(), denominator);
+		if(isSmall()) return derive(new Fraction(-num, den));
+		return derive(new Fraction(bigNum.negate(), bigDen));
 	}
 	
 	/***Returns the current fraction powered by -1.*/
 	public Fraction powNegOne() {
-		return new Fraction(denominator, numerator);
+		Fraction f = reduced();
+		if(f.isSmall()) return new Fraction(f.den, f.num);
+		return new Fraction(f.bigDen, f.bigNum);
 	}
 	
 	/***Clones the fraction to a new instance with all of the same values.*/
 	public Fraction clone() {
-		return new Fraction(numerator, denominator);
+		return new Fraction(this);
 	}
 	
 	/***Parses from string (the form [integer/integer] or [integer])*/
@@ -144,8 +293,10 @@ public class Fraction extends Number{
 	
 	/***Returns a string representation of the given fraction, either in the form "numerator/denominator" or if the denominator is equal to one, then the from "numerator"*/
 	public static String toString(Fraction f) {
+		f = f.reduced();
+		if(f.isSmall()) return f.den == 1 ? Long.toString(f.num) : f.num + "/" + f.den;
 		if(f.denominator().equals(BigInteger.ONE)) return f.numerator().toString();
-		else return String.format("%s/%s", f.numerator().toString(), f.denominator().toString());
+		else return f.numerator().toString() + "/" + f.denominator().toString();
 	}
 	
 	/***Returns this fraction as a string, using the same rules as Fraction.toString(Fraction f).*/
@@ -154,24 +305,31 @@ public class Fraction extends Number{
 	
 	/***Returns this fraction as a double, by dividing the numerator by the denominator.*/
 	@Override
-	public double doubleValue() {return numerator.doubleValue() / denominator.doubleValue();}
+	public double doubleValue() {
+		if(isSmall()) return (double) num / (double) den;
+		Fraction f = reduced();
+		return f.isSmall() ? (double) f.num / (double) f.den : f.bigNum.doubleValue() / f.bigDen.doubleValue();
+	}
 	
 	/***Returns this fraction as a double, by dividing the numerator by the denominator.*/
 	@Override
-	public float floatValue() {return numerator.floatValue() / denominator.floatValue();}
+	public float floatValue() {
+		Fraction f = reduced();
+		return f.isSmall() ? (float) f.num / (float) f.den : f.bigNum.floatValue() / f.bigDen.floatValue();
+	}
 	
 	/***Returns this fraction as an int, by dividing the numerator by the denominator.*/
 	@Override
-	public int intValue() {return numerator.divide(denominator).intValue();}
+	public int intValue() {return isSmall() ? (int) (num / den) : bigNum.divide(bigDen).intValue();}
 	
 	/***Returns this fraction as a long, by dividing the numerator by the denominator.*/
 	@Override
-	public long longValue() {return numerator.divide(denominator).longValue();}
+	public long longValue() {return isSmall() ? num / den : bigNum.divide(bigDen).longValue();}
 	
 	/***Returns the given fraction as a string in latex form.*/
 	public static String asLatex(Fraction f) {
 		if(f.denominator().equals(BigInteger.ONE)) return f.numerator().toString();
-		else return String.format("\\frac{%s}{%s}", f.numerator().toString(), f.denominator().toString());
+		else return "\\frac{" + f.numerator().toString() + "}{" + f.denominator().toString() + "}";
 	}
 
 	/***Returns the given fraction as a string in latex form.*/
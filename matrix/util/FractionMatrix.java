@@ -1,6 +1,17 @@
 package matrix.util;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 public class FractionMatrix{
+	
+	//the side of the square tiles of the matrix product, and the number of products below which it runs sequentially
+	private static final int BLOCK_SIZE = 64;
+	private static final long PARALLEL_THRESHOLD = 1 << 15;
 
 	//elements
 	protected Fraction[][] elements;
@@ -15,6 +26,7 @@ public class FractionMatrix{
 	}
 
 	public FractionMatrix(FractionMatrix m) {
+		m.updateElements();
 		elements = new Fraction[m.getHeight()][m.getWidth()];
 		for (int r = 0; r < m.elements.length; r++) {
 			System.arraycopy(m.elements[r], 0, this.elements[r], 0, m.elements[r].length);
@@ -44,8 +56,90 @@ public class FractionMatrix{
 	/***Compute the scaling of a fraction-matrix by a fraction.*/
 	public static FractionMatrix scale(FractionMatrix m, Fraction f){return operate(m, (Fraction f2) -> f2.multi(f));}
 	
+	/***Computes the matrix product m1 * m2. 
+	 * Each row of m1 and each column of m2 is put over a common denominator, such that every element is a single integer dot product 
+	 * followed by one simplification. The product is computed in tiles, which are spread across the common fork-join pool.*/
+	public static FractionMatrix multi(FractionMatrix m1, FractionMatrix m2){
+		if(m1.getWidth() != m2.getHeight()) throw new IllegalArgumentException(String.format("Cannot multiply a %dx%d matrix by a %dx%d matrix", m1.getHeight(), m1.getWidth(), m2.getHeight(), m2.getWidth()));
+		
+		//the rows of m1 and the columns of m2 (as rows of the transpose) as integers
+		BigInteger[] rowDenominators = new BigInteger[m1.getHeight()];
+		BigInteger[][] rows = new BigInteger[m1.getHeight()][];
+		for (int r = 0; r < rows.length; r++) {
+			rowDenominators[r] = rowDenominator(m1, r);
+			rows[r] = integerRow(m1, r, rowDenominators[r]);
+		}
+		
+		FractionMatrix transpose = transpose(m2);
+		BigInteger[] columnDenominators = new BigInteger[m2.getWidth()];
+		BigInteger[][] columns = new BigInteger[m2.getWidth()][];
+		for (int c = 0; c < columns.length; c++) {
+			columnDenominators[c] = rowDenominator(transpose, c);
+			columns[c] = integerRow(transpose, c, columnDenominators[c]);
+		}
+		
+		//longs are used when no sum of products can overflow 128 bits
+		long[][] longRows = toLongs(rows), longColumns = toLongs(columns);
+		if(longRows == null || longColumns == null || !Int128.fits(maxBitLength(rows), maxBitLength(columns), m1.getWidth())) {
+			longRows = null;
+			longColumns = null;
+		}
+		
+		BigInteger[][] products = new BigInteger[rows.length][columns.length];
+		ProductTiles tiles = new ProductTiles(longRows, longColumns, rows, columns, products, 0, rows.length, 0, columns.length);
+		if((long) rows.length * columns.length * m1.getWidth() < PARALLEL_THRESHOLD) tiles.compute();
+		else ForkJoinPool.commonPool().invoke(tiles);
+		
+		Fraction[][] outElements = new Fraction[rows.length][columns.length];
+		for (int r = 0; r < rows.length; r++) {
+			for (int c = 0; c < columns.length; c++) {
+				outElements[r][c] = Fraction.simplify(products[r][c], rowDenominators[r].multiply(columnDenominators[c]));
+			}
+		}
+		
+		return new FractionMatrix(outElements);
+	}
+	
+	/***Returns the transpose of the matrix.*/
+	public static FractionMatrix transpose(FractionMatrix m){
+		m.updateElements();
+		Fraction[][] outElements = new Fraction[m.getWidth()][m.getHeight()];
+		
+		for (int r = 0; r < m.getHeight(); r++) {
+			for (int c = 0; c < m.getWidth(); c++) {
+				outElements[c][r] = m.elements[r][c];
+			}
+		}
+		
+		return new FractionMatrix(outElements);
+	}
+	
+	/***Returns the integers as longs, or null if one does not fit.*/
+	private static long[][] toLongs(BigInteger[][] integers) {
+		long[][] longs = new long[integers.length][];
+		for (int r = 0; r < integers.length; r++) {
+			longs[r] = new long[integers[r].length];
+			for (int c = 0; c < longs[r].length; c++) {
+				if(integers[r][c].bitLength() >= Long.SIZE) return null;
+				longs[r][c] = integers[r][c].longValue();
+			}
+		}
+		return longs;
+	}
+	
+	/***Returns the largest bit length of the integers.*/
+	private static int maxBitLength(BigInteger[][] integers) {
+		int max = 0;
+		for (BigInteger[] row : integers) {
+			for (BigInteger value : row) max = Math.max(max, value.bitLength());
+		}
+		return max;
+	}
+	
 	/***Computes the given operation on the two matrices.*/
 	public static FractionMatrix operate(FractionMatrix m1, FractionMatrix m2, FracFracOperation func){
+		m1.updateElements();
+		m2.updateElements();
 		
 		Fraction[][] outElements = new Fraction[m1.getHeight()][m1.getWidth()];
 		
@@ -60,6 +154,7 @@ public class FractionMatrix{
 	
 	/***Computes a given operation on the given matrix.*/
 	public static FractionMatrix operate(FractionMatrix m, FractionOperation func){
+		m.updateElements();
 		
 		Fraction[][] outElements = new Fraction[m.getHeight()][m.getWidth()];
 		
@@ -79,48 +174,108 @@ public class FractionMatrix{
 	
 	
 	/***Clones the fraction to a new instance with all of the same values.*/
-	public FractionMatrix clone() {return new FractionMatrix(elements);}
+	public FractionMatrix clone() {
+		updateElements();
+		return new FractionMatrix(elements);
+	}
+	
+	/***Called before the elements are read directly, such that a subclass keeping its values elsewhere can write them into the elements.*/
+	protected void updateElements() {}
 	
 	/***Returns a string representation of the given fraction-matrix.*/
 	public static String toString(FractionMatrix m) {
-		return toNiceString(m, 
-				(int r, int c) -> defaultFormater(c, m.getWidth(), 
-						"| ", " ", " |\n"), 
-				(Fraction f) -> Fraction.toString(f));
+		StringBuilder str = new StringBuilder();
+		render(() -> appendString(m, str));
+		return str.toString();
 	}
 	
 	/***Returns a string representation of the given fraction-matrix.*/
 	public static String asLatex(FractionMatrix m) {
-		return String.format("\\begin{bmatrix}\n%s\\end{bmatrix}\n", 
-				toNiceString(m, 
-					(int r, int c) -> defaultFormater(c, m.getWidth(), 
-						"\t", " & ", " \\\\\n"), 
-					(Fraction f) -> f.asLatex()));
+		StringBuilder str = new StringBuilder();
+		render(() -> appendLatex(m, str));
+		return str.toString();
 	}
 
 	/**Returns a string representation of the given fraction-matrix.*/
 	public static String toDoubleString(FractionMatrix m, int digitCount) {
+		StringBuilder str = new StringBuilder();
+		render(() -> appendDoubleString(m, str, digitCount));
+		return str.toString();
+	}
+	
+	/***Writes the string representation of the given fraction-matrix to the appendable.*/
+	public static void appendString(FractionMatrix m, Appendable out) throws IOException {
+		appendNiceString(m, out, 
+				(int c) -> c == 0 ? "| " : "", 
+				(int c) -> c <= m.getWidth() - 2 ? " " : " |\n", 
+				(Fraction f) -> Fraction.toString(f));
+	}
+	
+	/***Writes the latex representation of the given fraction-matrix to the appendable.*/
+	public static void appendLatex(FractionMatrix m, Appendable out) throws IOException {
+		out.append("\\begin{bmatrix}\n");
+		appendNiceString(m, out, 
+				(int c) -> c == 0 ? "\t" : "", 
+				(int c) -> c <= m.getWidth() - 2 ? " & " : " \\\\\n", 
+				(Fraction f) -> f.asLatex());
+		out.append("\\end{bmatrix}\n");
+	}
+	
+	/***Writes the double approximation of the given fraction-matrix, rounded to the given number of digits, to the appendable.*/
+	public static void appendDoubleString(FractionMatrix m, Appendable out, int digitCount) throws IOException {
+		appendNiceString(m, out, 
+				(int c) -> c == 0 ? "| " : "", 
+				(int c) -> c <= m.getWidth() - 2 ? " " : " |\n", 
+				doubleString(digitCount));
+	}
+	
+	/***Returns the double approximation of a fraction, rounded to the given number of digits, where whole numbers are written without decimals.*/
+	public static FractionString doubleString(int digitCount) {
 		int zeroes = (int) Math.pow(10, digitCount);
-		return FractionMatrix.toNiceString(m, 
-				(int r, int c) -> defaultFormater(c, m.getWidth(), "| ", " ", " |\n"), 
-				(Fraction f) -> {
+		return (Fraction f) -> {
 					double value = f.doubleValue();	
 					if(value % 1 == 0) return Integer.toString((int)value);	
 					else return Double.toString((double)(Math.round(value * zeroes)) / zeroes);
-				});
+		};
 	}
 
-	/***The default way to format a fraction-matrix string.*/
-	private static String defaultFormater(int c, int matrixWidth, String rowBegin, String columnDelimiter, String rowEnd) {
-		String format = "%s";
-		if(c == 0) format = rowBegin + format;
-		if(c <= matrixWidth - 2) format = format + columnDelimiter;
-		else format = format + rowEnd;
-		return format;
+	/***Writes the given fraction-matrix to the appendable, with every element right-aligned to the widest element of its column and framed by the strings of its column.
+	 * The widths are found in one pass over the elements, after which every element is written once, so the time is linear in the size of the output.*/
+	public static void appendNiceString(FractionMatrix m, Appendable out, ColumnString before, ColumnString after, FractionString stringFunc) throws IOException {
+		m.updateElements();
+		
+		//Getting a matrix of all fractions as strings, and the width of each column
+		String strMatrix[][] = new String[m.getHeight()][m.getWidth()];
+		int columnWidths[] = new int[m.getWidth()];
+		Arrays.fill(columnWidths, 1);
+		for (int r = 0; r < m.getHeight(); r++) {
+			for (int c = 0; c < m.getWidth(); c++) {
+				strMatrix[r][c] = stringFunc.run(m.elements[r][c]);
+				columnWidths[c] = Math.max(columnWidths[c], strMatrix[r][c].length());
+			}
+		}
+		
+		//Getting the framing strings of each column
+		String befores[] = new String[m.getWidth()], afters[] = new String[m.getWidth()];
+		for (int c = 0; c < m.getWidth(); c++) {
+			befores[c] = before.run(c);
+			afters[c] = after.run(c);
+		}
+		
+		//Writes each element, padded on the left
+		for (int r = 0; r < m.getHeight(); r++) {
+			for (int c = 0; c < m.getWidth(); c++) {
+				out.append(befores[c]);
+				for (int i = strMatrix[r][c].length(); i < columnWidths[c]; i++) out.append(' ');
+				out.append(strMatrix[r][c]);
+				out.append(afters[c]);
+			}
+		}
 	}
 	
 	/***Returns a nicer string representation of the given fraction-matrix.*/
 	public static String toNiceString(FractionMatrix m, FractionFormat formatFunc, FractionString stringFunc) {
+		m.updateElements();
 		
 		//Getting a matrix of all fractions as strings
 		String strMatrix[][] = new String[m.getHeight()][m.getWidth()];
@@ -146,19 +301,29 @@ public class FractionMatrix{
 		
 		//Combines each element using the formatter
 		return toString(m, (int r, int c, Fraction f) -> {
-			return String.format(formatFunc.run(r, c).replaceAll("%", "%" + rowSizes[c]), strMatrix[r][c]);
+			return String.format(formatFunc.run(r, c).replace("%", "%" + rowSizes[c]), strMatrix[r][c]);
 		});
 	}
 	
 	/***Returns a nicer string representation of the given fraction-matrix.*/
 	public static String toString(FractionMatrix m, FormatFracString func) {
-		String str = "";
+		m.updateElements();
+		StringBuilder str = new StringBuilder();
 		for (int r = 0; r < m.getHeight(); r++) {
 			for (int c = 0; c < m.getWidth(); c++) {
-				str += func.run(r, c, m.elements[r][c]); 
+				str.append(func.run(r, c, m.elements[r][c])); 
 			}
 		}
-		return str;
+		return str.toString();
+	}
+	
+	/***Runs a renderer writing to a string builder, which never throws.*/
+	public static void render(Renderer renderer) {
+		try {
+			renderer.run();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
 	/***Parses from string.*/
@@ -189,6 +354,8 @@ public class FractionMatrix{
 	
 	/***Combine matrices.*/
 	public static FractionMatrix combine(FractionMatrix m1, FractionMatrix m2) {
+		m1.updateElements();
+		m2.updateElements();
 		
 		Fraction[][] outElements = new Fraction[m1.getHeight()][m1.getWidth() + m2.getWidth()];
 		
@@ -207,6 +374,7 @@ public class FractionMatrix{
 
 	/***Splits a matrix in two, the c column is with the right matrix.*/
 	public static FractionMatrix submatrix(FractionMatrix m, int startColumn, int endColumn) {
+		m.updateElements();
 		
 		Fraction[][] elements = new Fraction[m.getHeight()][endColumn - startColumn];
 		
@@ -219,6 +387,38 @@ public class FractionMatrix{
 		return new FractionMatrix(elements);
 	}
 	
+	/***Returns the least common multiple of the denominators in the given row.*/
+	public static BigInteger rowDenominator(FractionMatrix m, int r) {
+		m.updateElements();
+		BigInteger lcm = BigInteger.ONE;
+		for (int c = 0; c < m.getWidth(); c++) {
+			BigInteger denominator = m.elements[r][c].denominator().abs();
+			if(denominator.equals(BigInteger.ONE)) continue;
+			lcm = lcm.divide(lcm.gcd(denominator)).multiply(denominator);
+		}
+		return lcm;
+	}
+	
+	/***Returns the given row multiplied by a common multiple of its denominators (see rowDenominator), such that every element is an integer.*/
+	public static BigInteger[] integerRow(FractionMatrix m, int r, BigInteger multiple) {
+		m.updateElements();
+		BigInteger[] row = new BigInteger[m.getWidth()];
+		for (int c = 0; c < row.length; c++) {
+			Fraction f = m.elements[r][c];
+			row[c] = f.numerator().multiply(multiple.divide(f.denominator()));
+		}
+		return row;
+	}
+	
+	/***Returns the matrix as integers, where each row is multiplied by the least common multiple of its denominators.*/
+	public static BigInteger[][] clearDenominators(FractionMatrix m) {
+		BigInteger[][] integerMatrix = new BigInteger[m.getHeight()][];
+		for (int r = 0; r < m.getHeight(); r++) {
+			integerMatrix[r] = integerRow(m, r, rowDenominator(m, r));
+		}
+		return integerMatrix;
+	}
+	
 	// INTERFACES --------------------------------------------------------------------------------------------
 	
 	
@@ -243,4 +443,107 @@ public class FractionMatrix{
 		String run(int r, int c);
 	}
 	
+	public interface ColumnString{
+		String run(int c);
+	}
+	
+	public interface Renderer{
+		void run() throws IOException;
+	}
+	
+	/***Computes the integer products of the rows [rowFrom, rowTo) and columns [columnFrom, columnTo), splitting until the tile is at most BLOCK_SIZE square. 
+	 * Within a tile the dot products are accumulated BLOCK_SIZE elements at a time, such that the rows and columns being read stay in the cache. 
+	 * Longs are used when given (non-null), accumulating in 128 bits.*/
+	@SuppressWarnings("serial")
+	private static class ProductTiles extends RecursiveAction {
+		
+		private final long[][] longRows, longColumns;
+		private final BigInteger[][] rows, columns, products;
+		private final int rowFrom, rowTo, columnFrom, columnTo;
+		
+		private ProductTiles(long[][] longRows, long[][] longColumns, BigInteger[][] rows, BigInteger[][] columns, BigInteger[][] products, 
+				int rowFrom, int rowTo, int columnFrom, int columnTo) {
+			this.longRows = longRows;
+			this.longColumns = longColumns;
+			this.rows = rows;
+			this.columns = columns;
+			this.products = products;
+			this.rowFrom = rowFrom;
+			this.rowTo = rowTo;
+			this.columnFrom = columnFrom;
+			this.columnTo = columnTo;
+		}
+		
+		@Override
+		protected void compute() {
+			if(rowTo - rowFrom > BLOCK_SIZE || columnTo - columnFrom > BLOCK_SIZE) {
+				if(rowTo - rowFrom >= columnTo - columnFrom) {
+					int middle = (rowFrom + rowTo) >>> 1;
+					invokeAll(new ProductTiles(longRows, longColumns, rows, columns, products, rowFrom, middle, columnFrom, columnTo), 
+							new ProductTiles(longRows, longColumns, rows, columns, products, middle, rowTo, columnFrom, columnTo));
+				}else {
+					int middle = (columnFrom + columnTo) >>> 1;
+					invokeAll(new ProductTiles(longRows, longColumns, rows, columns, products, rowFrom, rowTo, columnFrom, middle), 
+							new ProductTiles(longRows, longColumns, rows, columns, products, rowFrom, rowTo, middle, columnTo));
+				}
+				return;
+			}
+			
+			if(longRows != null && longColumns != null) computeLongs();
+			else computeBigIntegers();
+		}
+		
+		/***Computes the tile using 128 bit accumulators.*/
+		private void computeLongs() {
+			int depth = longRows.length == 0 ? 0 : longRows[0].length;
+			Int128[][] sums = new Int128[rowTo - rowFrom][columnTo - columnFrom];
+			for (Int128[] row : sums) {
+				for (int c = 0; c < row.length; c++) row[c] = new Int128();
+			}
+			
+			for (int from = 0; from < depth; from += BLOCK_SIZE) {
+				int to = Math.min(depth, from + BLOCK_SIZE);
+				for (int r = rowFrom; r < rowTo; r++) {
+					long[] row = longRows[r];
+					for (int c = columnFrom; c < columnTo; c++) {
+						long[] column = longColumns[c];
+						Int128 sum = sums[r - rowFrom][c - columnFrom];
+						for (int k = from; k < to; k++) {
+							if(row[k] != 0 && column[k] != 0) sum.multiAdd(row[k], column[k]);
+						}
+					}
+				}
+			}
+			
+			for (int r = rowFrom; r < rowTo; r++) {
+				for (int c = columnFrom; c < columnTo; c++) {
+					products[r][c] = sums[r - rowFrom][c - columnFrom].toBigInteger();
+				}
+			}
+		}
+		
+		/***Computes the tile using big integers.*/
+		private void computeBigIntegers() {
+			int depth = rows.length == 0 ? 0 : rows[0].length;
+			for (int r = rowFrom; r < rowTo; r++) {
+				for (int c = columnFrom; c < columnTo; c++) products[r][c] = BigInteger.ZERO;
+			}
+			
+			for (int from = 0; from < depth; from += BLOCK_SIZE) {
+				int to = Math.min(depth, from + BLOCK_SIZE);
+				for (int r = rowFrom; r < rowTo; r++) {
+					BigInteger[] row = rows[r];
+					for (int c = columnFrom; c < columnTo; c++) {
+						BigInteger[] column = columns[c];
+						BigInteger sum = products[r][c];
+						for (int k = from; k < to; k++) {
+							if(row[k].signum() != 0 && column[k].signum() != 0) sum = sum.add(row[k].multiply(column[k]));
+						}
+						products[r][c] = sum;
+					}
+				}
+			}
+		}
+	}
+	
 }
@@ -0,0 +1,36 @@
+package matrix.util;
+
+import java.math.BigInteger;
+
+/***A signed 128 bit accumulator for sums of products of longs, avoiding big integers until the sum is read.*/
+public class Int128 {
+	
+	// : hi * 2^64 + lo (two's complement)
+	private long hi, lo;
+	
+	/***Adds the product a * b.*/
+	public void multiAdd(long a, long b) {
+		long sum = lo + a * b;
+		hi += Math.multiplyHigh(a, b) + (Long.compareUnsigned(sum, lo) < 0 ? 1 : 0);
+		lo = sum;
+	}
+	
+	/***Sets the accumulator to zero.*/
+	public void clear() {
+		hi = 0;
+		lo = 0;
+	}
+	
+	/***Returns the accumulated value.*/
+	public BigInteger toBigInteger() {
+		if(hi == 0 && lo >= 0 || hi == -1 && lo < 0) return BigInteger.valueOf(lo);
+		BigInteger low = BigInteger.valueOf(lo >>> 1).shiftLeft(1).add(BigInteger.valueOf(lo & 1));
+		return BigInteger.valueOf(hi).shiftLeft(Long.SIZE).add(low);
+	}
+	
+	/***Returns true if a sum of count products of values with at most the given bit lengths cannot overflow.*/
+	public static boolean fits(int bitsA, int bitsB, int count) {
+		return bitsA + bitsB + (Integer.SIZE - Integer.numberOfLeadingZeros(count)) < 2 * Long.SIZE - 1;
+	}
+	
+}
@@ -0,0 +1,201 @@
+package matrix.util.inputOutput;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+import matrix.util.linearSystems.LinearSystem;
+
+/***A compact binary format for fraction-matrices and linear systems.
+ * The file starts with the magic number, the version, and the height, width and coefficient width as varints (unsigned LEB128).
+ * The elements follow row by row, each as a varint header whose two lowest bits give the kind of element:
+ * 0 an integer (the rest of the header is the zigzag encoded numerator),
+ * 1 a fraction of longs (the rest of the header is the zigzag encoded numerator, followed by the zigzag encoded denominator as a varint),
+ * 2 a fraction of big integers (the numerator and denominator follow as a varint length and the two's complement bytes).*/
+public class BinaryMatrix {
+	
+	//header
+	private static final int MAGIC = 0x4C53594D; // "LSYM"
+	private static final byte VERSION = 1;
+	
+	//element kinds
+	private static final int INTEGER = 0, FRACTION = 1, BIG_FRACTION = 2;
+	
+	//the numerators that fit in a header, beside the kind
+	private static final int NUMERATOR_BITS = Long.SIZE - 3;
+	
+	
+	
+	// WRITING ------------------------------------------------------------------------------------------------------
+	
+	
+	
+	/***Writes the matrix to the file, replacing it if it exists.*/
+	public static void write(FractionMatrix m, Path path) throws IOException {
+		try(OutputStream out = Files.newOutputStream(path)){
+			write(m, out);
+		}
+	}
+	
+	/***Writes the matrix to the stream, one element at a time. The coefficient width of a linear system is kept, a matrix is written as if every column is a coefficient.*/
+	public static void write(FractionMatrix m, OutputStream stream) throws IOException {
+		BufferedOutputStream out = new BufferedOutputStream(stream);
+		
+		for (int i = 3; i >= 0; i--) out.write(MAGIC >>> (8 * i));
+		out.write(VERSION);
+		writeVarint(out, m.getHeight());
+		writeVarint(out, m.getWidth());
+		writeVarint(out, m instanceof LinearSystem ? ((LinearSystem) m).getCoefficientWidth() : m.getWidth());
+		
+		for (int r = 0; r < m.getHeight(); r++) {
+			for (int c = 0; c < m.getWidth(); c++) {
+				writeElement(out, m.getElement(r, c));
+			}
+		}
+		out.flush();
+	}
+	
+	/***Writes a single element, using the smallest kind that holds it.*/
+	private static void writeElement(OutputStream out, Fraction f) throws IOException {
+		BigInteger numerator = f.numerator(), denominator = f.denominator();
+		
+		if(numerator.bitLength() < NUMERATOR_BITS && denominator.bitLength() < Long.SIZE) {
+			long header = zigzag(numerator.longValue()) << 2;
+			if(denominator.equals(BigInteger.ONE)) {
+				writeVarint(out, header | INTEGER);
+			}else {
+				writeVarint(out, header | FRACTION);
+				writeVarint(out, zigzag(denominator.longValue()));
+			}
+			return;
+		}
+		
+		writeVarint(out, BIG_FRACTION);
+		writeBigInteger(out, numerator);
+		writeBigInteger(out, denominator);
+	}
+	
+	/***Writes a big integer as its length and two's complement bytes.*/
+	private static void writeBigInteger(OutputStream out, BigInteger value) throws IOException {
+		byte[] bytes = value.toByteArray();
+		writeVarint(out, bytes.length);
+		out.write(bytes);
+	}
+	
+	/***Writes an unsigned value seven bits at a time, setting the high bit of every byte but the last.*/
+	private static void writeVarint(OutputStream out, long value) throws IOException {
+		while((value & ~0x7FL) != 0) {
+			out.write((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+	
+	/***Maps signed values to unsigned ones, such that small magnitudes give small values (0, -1, 1, -2, ... to 0, 1, 2, 3, ...).*/
+	private static long zigzag(long value) {return (value << 1) ^ (value >> 63);}
+	
+	
+	
+	// READING ------------------------------------------------------------------------------------------------------
+	
+	
+	
+	/***Reads a matrix from the file, which is mapped into memory rather than read through a stream.*/
+	public static FractionMatrix readMatrix(Path path) throws IOException {return read(map(path), false);}
+	
+	/***Reads a linear system from the file, which is mapped into memory rather than read through a stream.*/
+	public static LinearSystem readSystem(Path path) throws IOException {return (LinearSystem) read(map(path), true);}
+	
+	/***Reads a matrix from the buffer, starting at its position.*/
+	public static FractionMatrix readMatrix(ByteBuffer buffer) throws IOException {return read(buffer, false);}
+	
+	/***Reads a linear system from the buffer, starting at its position.*/
+	public static LinearSystem readSystem(ByteBuffer buffer) throws IOException {return (LinearSystem) read(buffer, true);}
+	
+	/***Maps the entire file as read only.*/
+	private static ByteBuffer map(Path path) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+			if(channel.size() > Integer.MAX_VALUE) throw new IOException(String.format("%s is too large to be mapped (%d bytes)", path, channel.size()));
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+	
+	/***Reads the header and the elements, returning a linear system if isSystem is true.*/
+	private static FractionMatrix read(ByteBuffer buffer, boolean isSystem) throws IOException {
+		try {
+			if(buffer.getInt() != MAGIC) throw new IOException("Not a binary matrix");
+			byte version = buffer.get();
+			if(version != VERSION) throw new IOException("Unsupported binary matrix version " + version);
+			
+			int height = readSize(buffer), width = readSize(buffer), coefficientWidth = readSize(buffer);
+			if(height == 0 || width == 0 || coefficientWidth > width) throw new IOException(String.format("Invalid binary matrix size %dx%d (%d coefficients)", height, width, coefficientWidth));
+			//every element takes at least one byte, so a size beyond the remaining bytes is rejected before the elements are allocated
+			if((long) height * width > buffer.remaining()) throw new BufferUnderflowException();
+			
+			Fraction[][] elements = new Fraction[height][width];
+			for (int r = 0; r < height; r++) {
+				for (int c = 0; c < width; c++) {
+					elements[r][c] = readElement(buffer);
+				}
+			}
+			
+			FractionMatrix m = new FractionMatrix(elements);
+			return isSystem ? new LinearSystem(m, coefficientWidth) : m;
+		}catch(BufferUnderflowException e) {
+			throw new EOFException("The binary matrix ended before all elements were read");
+		}
+	}
+	
+	/***Reads a single element of any kind.*/
+	private static Fraction readElement(ByteBuffer buffer) throws IOException {
+		long header = readVarint(buffer);
+		switch((int) (header & 3)) {
+		case INTEGER: return new Fraction(unzigzag(header >>> 2));
+		case FRACTION: return new Fraction(unzigzag(header >>> 2), unzigzag(readVarint(buffer)));
+		case BIG_FRACTION: return new Fraction(readBigInteger(buffer), readBigInteger(buffer));
+		default: throw new IOException("Unknown element kind " + (header & 3));
+		}
+	}
+	
+	/***Reads a big integer as its length and two's complement bytes.*/
+	private static BigInteger readBigInteger(ByteBuffer buffer) throws IOException {
+		int length = readSize(buffer);
+		if(length == 0) throw new IOException("Invalid big integer of zero bytes");
+		if(length > buffer.remaining()) throw new BufferUnderflowException();
+		
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new BigInteger(bytes);
+	}
+	
+	/***Reads a varint that must be a valid size.*/
+	private static int readSize(ByteBuffer buffer) throws IOException {
+		long size = readVarint(buffer);
+		if(size < 0 || size > Integer.MAX_VALUE) throw new IOException("Invalid size " + Long.toUnsignedString(size));
+		return (int) size;
+	}
+	
+	/***Reads an unsigned value seven bits at a time.*/
+	private static long readVarint(ByteBuffer buffer) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if(b >= 0) return value;
+		}
+		throw new IOException("Varint longer than 64 bits");
+	}
+	
+	/***The inverse of zigzag.*/
+	private static long unzigzag(long value) {return (value >>> 1) ^ -(value & 1);}
+}
@@ -1,42 +1,191 @@
 package matrix.util.inputOutput;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Scanner;
 
+import matrix.util.Fraction;
 import matrix.util.FractionMatrix;
 
 public class MatrixInput {
 	
+	//the number of decimal digits that always fit in a long, and its power of ten
+	private static final int CHUNK_DIGITS = 18;
+	private static final BigInteger CHUNK = BigInteger.TEN.pow(CHUNK_DIGITS);
+	
 	/***Reads a total matrix from the standard input.*/
 	public static FractionMatrix readMatrix(){
-		String input = " " + readLines() + " ";
-
-		input = input.replaceAll("[^\\d\\/\\-\\n]+", " ");
-		input = input.replaceAll("[^\\S\\n]+", " ");
-
-		input = input.replaceAll(" \n", "\n");
-		input = input.replaceAll("\n ", "\n");
+		try {
+			return readMatrix(System.in);
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/***Reads a total matrix from the given stream, one byte at a time such that nothing after the matrix is consumed (see readMatrix(Reader)).
+	 * Streams that are not buffered should be wrapped in a BufferedInputStream.*/
+	public static FractionMatrix readMatrix(InputStream in) throws IOException, NumberFormatException{
+		return readMatrix(new Reader() {
+			@Override
+			public int read(char[] buffer, int offset, int length) throws IOException {
+				if(length == 0) return 0;
+				int b = in.read();
+				if(b == -1) return -1;
+				buffer[offset] = (char) b; //the characters of a matrix are ascii, other bytes are separators
+				return 1;
+			}
+			
+			@Override
+			public int read() throws IOException {return in.read();}
+			
+			@Override
+			public void close() throws IOException {in.close();}
+		});
+	}
+	
+	/***Reads a total matrix in a single pass, until an empty line or the end of the input.
+	 * Each line is a row, and the elements are integers or fractions (integer/integer) separated by any other characters.
+	 * The elements are parsed as they are read, using longs unless they overflow.*/
+	public static FractionMatrix readMatrix(Reader in) throws IOException, NumberFormatException{
+		ArrayList<Fraction[]> rows = new ArrayList<>();
+		ArrayList<Fraction> firstRow = new ArrayList<>();
+		Fraction[] row = null;
+		int width = -1, column = 0, lineLength = 0;
+		
+		IntegerBuilder numerator = new IntegerBuilder(), denominator = new IntegerBuilder();
+		IntegerBuilder current = null;
+		
+		while(true) {
+			int ch = in.read();
+			boolean isPartOfElement = ch == '-' || ch == '/' || (ch >= '0' && ch <= '9');
+			
+			//reading an element
+			if(isPartOfElement) {
+				lineLength++;
+				if(current == null) {
+					numerator.clear();
+					denominator.clear();
+					current = numerator;
+				}
+				
+				if(ch == '-') {
+					if(!current.isEmpty() || current.isNegative) throw error("Misplaced '-'", rows.size());
+					current.isNegative = true;
+				}else if(ch == '/') {
+					if(current != numerator || numerator.isEmpty()) throw error("Misplaced '/'", rows.size());
+					current = denominator;
+				}else {
+					current.append(ch - '0');
+				}
+				continue;
+			}
+			
+			//ending an element
+			if(current != null) {
+				if(current.isEmpty()) throw error("Missing digits", rows.size());
+				
+				Fraction f = current == numerator ? numerator.toFraction() : numerator.divide(denominator);
+				if(width == -1) {
+					firstRow.add(f);
+				}else {
+					if(column == width) throw error(String.format("More than %d elements", width), rows.size());
+					row[column] = f;
+				}
+				column++;
+				current = null;
+			}
+			
+			//ending a row
+			if(ch == '\n' || ch == -1) {
+				if(column > 0) {
+					if(width == -1) {
+						width = column;
+						row = firstRow.toArray(new Fraction[width]);
+					}else if(column < width) {
+						throw error(String.format("%d elements, expected %d", column, width), rows.size());
+					}
+					rows.add(row);
+					row = new Fraction[width];
+				}
+				
+				if(ch == -1 || lineLength == 0) break;
+				column = 0;
+				lineLength = 0;
+			}else if(ch != '\r') {
+				lineLength++;
+			}
+		}
 		
-		return FractionMatrix.parse(input.substring(1, input.length() - 1), "\n", " ");
+		if(rows.isEmpty()) throw new NumberFormatException("No matrix was given");
+		return new FractionMatrix(rows.toArray(new Fraction[rows.size()][]));
 	}
 	
-	/***This function returns an array of all lines taken as input until an empty line is inputed (that is not included).*/
-	private static String readLines(){
-		@SuppressWarnings("resource")
-		Scanner in = new Scanner(System.in);
-		ArrayList<String> lines = new ArrayList<>();
-		
-		//reading one line at a time
-		boolean flag = true;
-		do {
+	/***Returns an exception for a malformed element in the given row.*/
+	private static NumberFormatException error(String message, int r) {return new NumberFormatException(String.format("%s in row %d", message, r));}
+	
+	/***An integer read one digit at a time, held in a long until it would overflow.
+	 * After that the digits are collected in chunks, which are added to a big integer.*/
+	private static class IntegerBuilder {
+		private boolean isNegative;
+		private long value;
+		private BigInteger bigValue;
+		private int digits, chunkDigits;
+		
+		private void clear() {
+			isNegative = false;
+			value = 0;
+			bigValue = null;
+			digits = 0;
+			chunkDigits = 0;
+		}
+		
+		private boolean isEmpty() {return digits == 0;}
+		
+		private void append(int digit) {
+			digits++;
+			if(bigValue == null && value <= (Long.MAX_VALUE - digit) / 10) {
+				value = value * 10 + digit;
+				return;
+			}
 			
-			String line = in.nextLine();
+			//the value becomes the first chunk
+			if(bigValue == null) {
+				bigValue = BigInteger.valueOf(value);
+				value = 0;
+				chunkDigits = 0;
+			}
 			
-			flag = !line.equals("");
-			if(flag) lines.add(line);
-		}while(flag);
+			value = value * 10 + digit;
+			if(++chunkDigits == CHUNK_DIGITS) flush();
+		}
 		
-		return String.join("\n", lines);
+		/***Adds the last digits to the big integer.*/
+		private void flush() {
+			if(bigValue == null || chunkDigits == 0) return;
+			bigValue = bigValue.multiply(chunkDigits == CHUNK_DIGITS ? CHUNK : BigInteger.TEN.pow(chunkDigits)).add(BigInteger.valueOf(value));
+			value = 0;
+			chunkDigits = 0;
+		}
+		
+		private boolean isLong() {return bigValue == null;}
+		
+		private long toLong() {return isNegative ? -value : value;}
+		
+		private BigInteger toBigInteger() {
+			flush();
+			if(bigValue == null) return BigInteger.valueOf(toLong());
+			return isNegative ? bigValue.negate() : bigValue;
+		}
+		
+		private Fraction toFraction() {return isLong() ? new Fraction(toLong()) : new Fraction(toBigInteger());}
+		
+		/***Returns the simplified fraction of this over the given denominator.*/
+		private Fraction divide(IntegerBuilder denominator) {
+			if(isLong() && denominator.isLong()) return Fraction.simplify(toLong(), denominator.toLong());
+			return Fraction.simplify(toBigInteger(), denominator.toBigInteger());
+		}
 	}
 }
-
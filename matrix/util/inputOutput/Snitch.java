@@ -1,48 +1,207 @@
 package matrix.util.inputOutput;
 
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
 import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
 import matrix.util.linearSystems.LinearSystem;
 
+/***Reports the steps of a solve, unless it is silent. 
+ * The steps are logged as elementary row operations (see StepLog) and the printing is left to a background writer, 
+ * such that the solver only appends the row operations instead of rendering the system. 
+ * Every checkpointInterval'th call to printSystem is a checkpoint, where the system is printed, by default every call, and FINAL_ONLY prints only the final system. 
+ * If every change of the system is a logged row operation the writer renders a checkpoint by replaying the log since the last checkpoint, 
+ * otherwise the system is copied at the checkpoint.*/
 public class Snitch {
+	
+	//the checkpoint interval for printing only the final system
+	public static final int FINAL_ONLY = Integer.MAX_VALUE;
+	
+	//the writer, a single daemon thread printing in the order of submission, which ends when it has been idle for a second
+	private static final ExecutorService WRITER = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), (Runnable r) -> {
+		Thread thread = new Thread(r, "snitch-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
 
 	//fields
 	private boolean isSilent;
+	private int checkpointInterval;
+	private StepLog log;
 	
-	//constructor
-	public Snitch(boolean isSilent) {
-		this.isSilent = isSilent;
+	//the value of the last reported inconsistency, recorded even when silent
+	private Fraction inconsistency;
+	
+	//the number of printSystem calls, and the system of the last call if it was not a checkpoint
+	private int systemCount;
+	private LinearSystem skipped;
+	
+	//whether the checkpoints are replayed from the log, and the number of steps submitted for replay
+	private boolean isReplayable;
+	private int replayed;
+	
+	//constructors
+	public Snitch(boolean isSilent) {this(isSilent, 1);}
+	
+	public Snitch(boolean isSilent, int checkpointInterval) {
+		if(checkpointInterval < 1) throw new IllegalArgumentException("The checkpoint interval must be positive, got " + checkpointInterval);
 		
+		this.isSilent = isSilent;
+		this.checkpointInterval = checkpointInterval;
 	}
 
+	/***Returns true if nothing is printed.*/
+	public boolean isSilent() {return isSilent;}
+	
+	/***Returns the log of the row operations since begin, or null if the snitch is silent or begin was not called.*/
+	public StepLog getLog() {return log;}
+	
+	/***Returns the value of the last reported inconsistency 0 = value, or null if none was reported, even if the snitch is silent.*/
+	public Fraction getInconsistency() {return inconsistency;}
+	
+	/***Starts logging the row operations on the given system, before it is solved.*/
+	public void begin(LinearSystem system) {begin(system, false);}
+	
+	/***Starts logging the row operations on the given system, before it is solved. 
+	 * The checkpoints are replayed from the log if the solver only changes the system through the row operations it reports.*/
+	public void begin(LinearSystem system, boolean isReplayable) {
+		if(isSilent) return;
+		log = new StepLog(system);
+		this.isReplayable = isReplayable;
+		replayed = 0;
+	}
+	
+	/***Prints the given (final) system if its last printSystem was not a checkpoint, and waits until everything is printed.*/
+	public void finish(LinearSystem system) {
+		if(isSilent) return;
+		if(skipped == system) print(system);
+		skipped = null;
+		flush();
+	}
+	
+	/***Waits until everything submitted by any snitch has been printed.*/
+	public static void flush() {
+		try {
+			WRITER.submit(() -> {}).get();
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}catch(ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	
+	/***Submits the text to the writer, the text is only computed by the writer.*/
+	private static void post(Supplier<String> text) {WRITER.execute(() -> System.out.print(text.get()));}
+	
+	/***Submits the text to the writer, which computes it and prints it as an error.*/
+	private static void postError(Supplier<String> text) {WRITER.execute(() -> System.err.print(text.get()));}
+
 	// PRINT FUNCTIONS -------------------------------------------------------------------------------
 	
-	/***Prints the entire linear system.*/
+	/***Prints the entire linear system, if it is a checkpoint.*/
 	public void printSystem(LinearSystem system) {
 		if(isSilent) return;
-		System.out.println(LinearSystem.toString(system));
+		
+		systemCount++;
+		if(systemCount % checkpointInterval != 0) {
+			skipped = system;
+			return;
+		}
+		skipped = null;
+		if(log == null || !isReplayable) {
+			print(system);
+			return;
+		}
+		
+		//the steps since the last checkpoint are handed to the writer, which advances its own replay of the log
+		StepLog log = this.log;
+		List<StepLog.Step> steps = log.copySteps(replayed, log.size());
+		replayed = log.size();
+		post(() -> LinearSystem.toString(log.advance(steps)) + "\n");
+	}
+	
+	/***Copies the system and submits it to the writer, which renders the copy.*/
+	private void print(LinearSystem system) {
+		FractionMatrix copy = new FractionMatrix(system);
+		int coefficientWidth = system.getCoefficientWidth();
+		post(() -> LinearSystem.toString(new LinearSystem(copy, coefficientWidth)) + "\n");
 	}
 
 	/***Prints the general equation for the addition of two rows.*/
 	public void printRowAddition(int r1, int r2, Fraction scalar) {
 		if(isSilent) return;
-		System.out.printf("row-%d = row-%d + %s * row-%d\n", r2, r2, scalar.toString(), r1);
+		if(log != null) log.addRowAddition(r1, r2, scalar);
+		post(() -> String.format("row-%d = row-%d + %s * row-%d\n", r2, r2, scalar.toString(), r1));
 	}
 
 	/***Prints the entire linear system.*/
 	public void printRowScale(int r, Fraction scalar) {
 		if(isSilent) return;
-		System.out.printf("row-%d = %s * row-%d\n", r, scalar.toString(), r);
+		if(log != null) log.addRowScale(r, scalar);
+		post(() -> String.format("row-%d = %s * row-%d\n", r, scalar.toString(), r));
 	}
 	
 	/***Prints the entire linear system.*/
 	public void printRowSwap(int r1, int r2) {
 		if(isSilent) return;
-		System.out.printf("swap row-%d and row-%d\n", r1, r2);
+		if(log != null) log.addRowSwap(r1, r2);
+		post(() -> String.format("swap row-%d and row-%d\n", r1, r2));
+	}
+	
+	/***Prints the move of a row, shifting the rows between.*/
+	public void printRowMove(int r1, int r2) {
+		if(isSilent) return;
+		if(log != null) log.addRowMove(r1, r2);
+		post(() -> String.format("move row-%d to row-%d\n", r1, r2));
+	}
+	
+	/***Prints the fraction-free (Bareiss) elimination step using row r as the pivot row.*/
+	public void printFractionFreeStep(int r, int c, BigInteger pivot, BigInteger divisor) {
+		if(isSilent) return;
+		post(() -> String.format("row-i = (%s * row-i - row-i[%d] * row-%d) / %s, for all row-i != row-%d\n", pivot.toString(), c, r, divisor.toString(), r));
+	}
+	
+	/***Prints the number of combined modular images.*/
+	public void printModularImages(int primeCount, int modulusBits) {
+		if(isSilent) return;
+		post(() -> String.format("combined %d modular images (%d bit modulus)\n", primeCount, modulusBits));
+	}
+	
+	/***Prints the number of p-adic digits lifted.*/
+	public void printLiftingSteps(int steps, long prime) {
+		if(isSilent) return;
+		post(() -> String.format("lifted %d digits modulo %d\n", steps, prime));
+	}
+	
+	/***Prints the number of refinement steps of a mixed precision solve, and the bits of precision reached.*/
+	public void printRefinementSteps(int steps, int bits) {
+		if(isSilent) return;
+		post(() -> String.format("refined %d steps to %d bits\n", steps, bits));
+	}
+	
+	/***Prints the structure of the coefficients, and the distances of the non-zero coefficients farthest below and above the diagonal.*/
+	public void printStructure(String structure, int lowerBandwidth, int upperBandwidth) {
+		if(isSilent) return;
+		post(() -> String.format("%s coefficients (bandwidth %d below, %d above)\n", structure.toLowerCase().replace('_', ' '), lowerBandwidth, upperBandwidth));
+	}
+	
+	/***Prints the number of independent blocks of a system, and the size of the largest.*/
+	public void printBlocks(int blockCount, int largestHeight, int largestWidth) {
+		if(isSilent) return;
+		post(() -> String.format("%d independent blocks (largest %dx%d)\n", blockCount, largestHeight, largestWidth));
 	}
 	
 	/***Prints inconsistency.*/
 	public void printInconsistency(Fraction value) {
+		inconsistency = value;
 		if(isSilent) return;
-		System.err.printf("0 = %s?\n\n", Fraction.toString(value));
+		postError(() -> String.format("0 = %s?\n\n", Fraction.toString(value)));
 	}
 }
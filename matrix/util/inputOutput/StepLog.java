@@ -0,0 +1,111 @@
+package matrix.util.inputOutput;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+import matrix.util.linearSystems.LinearSystem;
+
+/***A log of the elementary row operations of a solve, in the order they were applied, starting from a copy of the system.
+ * Replaying the log gives the state of the system after any number of steps, as long as the solver only changed it through row operations (as GaussElemination does).*/
+public class StepLog {
+	
+	/***The kinds of elementary row operations.*/
+	public enum Kind {ADDITION, SCALE, SWAP, MOVE}
+	
+	//the system before the first step, and the steps
+	private final FractionMatrix initial;
+	private final int coefficientWidth;
+	private final List<Step> steps;
+	
+	//the system replayed up to the last checkpoint, only used by the writer of the snitch
+	private LinearSystem checkpoint;
+	
+	//constructor
+	public StepLog(LinearSystem system) {
+		initial = new FractionMatrix(system);
+		coefficientWidth = system.getCoefficientWidth();
+		steps = new ArrayList<>();
+	}
+	
+	/***Returns the number of logged steps.*/
+	public int size() {return steps.size();}
+	
+	/***Returns the i'th step.*/
+	public Step getStep(int i) {return steps.get(i);}
+	
+	/***Logs row-r2 = row-r2 + scalar * row-r1.*/
+	void addRowAddition(int r1, int r2, Fraction scalar) {steps.add(new Step(Kind.ADDITION, r1, r2, scalar));}
+	
+	/***Logs row-r = scalar * row-r.*/
+	void addRowScale(int r, Fraction scalar) {steps.add(new Step(Kind.SCALE, r, r, scalar));}
+	
+	/***Logs the swap of row-r1 and row-r2.*/
+	void addRowSwap(int r1, int r2) {steps.add(new Step(Kind.SWAP, r1, r2, null));}
+	
+	/***Logs the move of row-r1 to row-r2, shifting the rows between.*/
+	void addRowMove(int r1, int r2) {steps.add(new Step(Kind.MOVE, r1, r2, null));}
+	
+	/***Returns a copy of the steps from (inclusive) to (exclusive).*/
+	List<Step> copySteps(int from, int to) {return new ArrayList<>(steps.subList(from, to));}
+	
+	/***Applies the given steps to the system of the last checkpoint, which starts as the system before the first step, and returns it.*/
+	LinearSystem advance(List<Step> steps) {
+		if(checkpoint == null) checkpoint = replay();
+		for (Step step : steps) step.apply(checkpoint);
+		return checkpoint;
+	}
+	
+	/***Returns the system before the first step.*/
+	public LinearSystem replay() {return replay(0);}
+	
+	/***Returns the system after the given number of steps.*/
+	public LinearSystem replay(int stepCount) {
+		LinearSystem system = new LinearSystem(initial, coefficientWidth);
+		for (int i = 0; i < stepCount; i++) steps.get(i).apply(system);
+		return system;
+	}
+	
+	/***A single elementary row operation.*/
+	public static class Step {
+		private final Kind kind;
+		private final int r1, r2;
+		private final Fraction scalar;
+		
+		private Step(Kind kind, int r1, int r2, Fraction scalar) {
+			this.kind = kind;
+			this.r1 = r1;
+			this.r2 = r2;
+			this.scalar = scalar;
+		}
+		
+		public Kind getKind() {return kind;}
+		public int getFirstRow() {return r1;}
+		public int getSecondRow() {return r2;}
+		
+		/***Returns the scalar of an addition or scale, otherwise null.*/
+		public Fraction getScalar() {return scalar;}
+		
+		/***Applies the step to the system.*/
+		public void apply(LinearSystem system) {
+			switch(kind) {
+			case ADDITION: LinearSystem.addRows(system, r1, r2, scalar); break;
+			case SCALE: LinearSystem.scaleRow(system, r1, scalar); break;
+			case SWAP: LinearSystem.swapRows(system, r1, r2); break;
+			case MOVE: LinearSystem.moveRow(system, r1, r2); break;
+			}
+		}
+		
+		/***Returns the step as it is printed.*/
+		@Override
+		public String toString() {
+			switch(kind) {
+			case ADDITION: return String.format("row-%d = row-%d + %s * row-%d", r2, r2, scalar.toString(), r1);
+			case SCALE: return String.format("row-%d = %s * row-%d", r1, scalar.toString(), r1);
+			case SWAP: return String.format("swap row-%d and row-%d", r1, r2);
+			default: return String.format("move row-%d to row-%d", r1, r2);
+			}
+		}
+	}
+}
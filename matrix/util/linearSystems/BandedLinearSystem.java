@@ -0,0 +1,207 @@
+package matrix.util.linearSystems;
+
+import matrix.util.Fraction;
+
+/***A linear system (total matrix) with square coefficients, storing only the diagonals of the coefficients within a band, and the equality columns.
+ * Coefficient (r, c) is stored at band[r][c - r + lowerBandwidth], and the band reaches lowerBandwidth + upperBandwidth above the diagonal,
+ * the most that the row swaps of an elimination can fill in. Memory and row operations scale with n * bandwidth, instead of n^2.*/
+public class BandedLinearSystem {
+	
+	//matrix
+	private final int size, lowerBandwidth, upperBandwidth;
+	private Fraction[][] band;
+	private Fraction[][] equality;
+	
+	//constructor
+	public BandedLinearSystem(int size, int lowerBandwidth, int upperBandwidth, int equalityWidth) {
+		if(lowerBandwidth < 0 || upperBandwidth < 0) throw new IllegalArgumentException(String.format("The bandwidths must be non-negative, got %d and %d", lowerBandwidth, upperBandwidth));
+		
+		this.size = size;
+		this.lowerBandwidth = lowerBandwidth;
+		this.upperBandwidth = upperBandwidth;
+		band = new Fraction[size][2 * lowerBandwidth + upperBandwidth + 1];
+		equality = new Fraction[size][equalityWidth];
+		
+		Fraction zero = new Fraction(0);
+		for (int r = 0; r < size; r++) {
+			for (int i = 0; i < band[r].length; i++) band[r][i] = zero;
+			for (int c = 0; c < equalityWidth; c++) equality[r][c] = zero;
+		}
+	}
+	
+	/***Copies the system, whose coefficients must be square, within the smallest band holding its non-zero coefficients.*/
+	public BandedLinearSystem(LinearSystem system) {
+		this(system.getHeight(), lowerBandwidth(system), upperBandwidth(system), system.getWidth() - system.getCoefficientWidth());
+		
+		for (int r = 0; r < size; r++) {
+			for (int c = Math.max(0, r - lowerBandwidth); c <= Math.min(size - 1, r + upperBandwidth); c++) {
+				band[r][c - r + lowerBandwidth] = system.getElement(r, c);
+			}
+			for (int c = 0; c < equality[r].length; c++) equality[r][c] = system.getElement(r, size + c);
+		}
+	}
+	
+	/***Returns the tridiagonal system with the given diagonals and a single equality column, where lower[0] and upper[n - 1] are ignored.*/
+	public static BandedLinearSystem tridiagonal(Fraction[] lower, Fraction[] diagonal, Fraction[] upper, Fraction[] equality) {
+		int n = diagonal.length;
+		BandedLinearSystem system = new BandedLinearSystem(n, 1, 1, 1);
+		for (int r = 0; r < n; r++) {
+			if(r > 0) system.setElement(r, r - 1, lower[r]);
+			system.setElement(r, r, diagonal[r]);
+			if(r < n - 1) system.setElement(r, r + 1, upper[r]);
+			system.setElement(r, n, equality[r]);
+		}
+		return system;
+	}
+	
+	//variables
+	public int getHeight(){return size;}
+	public int getWidth(){return size + equality[0].length;}
+	public int getCoefficientWidth(){return size;}
+	
+	/**Returns the number of diagonals below the main diagonal.*/
+	public int getLowerBandwidth() {return lowerBandwidth;}
+	
+	/**Returns the number of diagonals above the main diagonal, not counting the room for fill-in.*/
+	public int getUpperBandwidth() {return upperBandwidth;}
+	
+	/**Returns the first column of the band of row r.*/
+	public int getFirstColumn(int r) {return Math.max(0, r - lowerBandwidth);}
+	
+	/**Returns the last column of the band of row r, including the room for fill-in.*/
+	public int getLastColumn(int r) {return Math.min(size - 1, r + lowerBandwidth + upperBandwidth);}
+	
+	/**Returns a specific element, which is zero outside the band.*/
+	public Fraction getElement(int r, int c) {
+		if(c >= size) return equality[r][c - size];
+		return isInBand(r, c) ? band[r][c - r + lowerBandwidth] : new Fraction(0);
+	}
+	
+	/**Determines of a specific element is zero.*/
+	public boolean isZero(int r, int c) {
+		if(c >= size) return equality[r][c - size].signum() == 0;
+		return !isInBand(r, c) || band[r][c - r + lowerBandwidth].signum() == 0;
+	}
+	
+	/**Assigns a specific element, which must be an equality element or within the band.*/
+	public void setElement(int r, int c, Fraction f) {
+		if(c >= size) {
+			equality[r][c - size] = f;
+			return;
+		}
+		if(!isInBand(r, c)) throw new IllegalArgumentException(String.format("The element (%d, %d) is outside the band", r, c));
+		band[r][c - r + lowerBandwidth] = f;
+	}
+	
+	/**Returns true if the coefficient is within the band, including the room for fill-in.*/
+	public boolean isInBand(int r, int c) {return c >= getFirstColumn(r) && c <= getLastColumn(r);}
+	
+	// - - - - - - - - - - - - - - - - - - - - ROW OPERATIONS - - - - - - - - - - - - - - - - - - - -
+	
+	/**Adds a scaled row (r1*scalar) to another (r2), over the band of r1, which must lie within the band of r2.*/
+	public static void addRows(BandedLinearSystem system, int r1, int r2, Fraction scalar){
+		Fraction[] source = system.band[r1], target = system.band[r2];
+		int offset = r1 - r2;
+		for (int c = system.getFirstColumn(r1); c <= system.getLastColumn(r1); c++) {
+			Fraction f = source[c - r1 + system.lowerBandwidth];
+			if(f.signum() == 0) continue;
+			if(!system.isInBand(r2, c)) throw new IllegalArgumentException(String.format("Row %d does not fit in the band of row %d", r1, r2));
+			int i = c - r1 + system.lowerBandwidth + offset;
+			target[i] = target[i].add(f.multi(scalar)); // row-2 = row-2 + row1 * scalar
+		}
+		
+		Fraction[] e1 = system.equality[r1], e2 = system.equality[r2];
+		for (int c = 0; c < e1.length; c++) {
+			if(e1[c].signum() != 0) e2[c] = e2[c].add(e1[c].multi(scalar));
+		}
+	}
+	
+	/**Scales a row.*/
+	public static void scaleRow(BandedLinearSystem system, int r, Fraction scalar){
+		for (int i = 0; i < system.band[r].length; i++) system.band[r][i] = system.band[r][i].multi(scalar);
+		for (int c = 0; c < system.equality[r].length; c++) system.equality[r][c] = system.equality[r][c].multi(scalar);
+	}
+	
+	/**Swaps the given rows, whose non-zero coefficients must lie within the band of the other row.*/
+	public static void swapRows(BandedLinearSystem system, int r1, int r2) {
+		Fraction[] b1 = shift(system, r1, r2), b2 = shift(system, r2, r1);
+		system.band[r1] = b2;
+		system.band[r2] = b1;
+		
+		Fraction[] e = system.equality[r1];
+		system.equality[r1] = system.equality[r2];
+		system.equality[r2] = e;
+	}
+	
+	/**Returns the band of row r1 as it is stored for row r2.*/
+	private static Fraction[] shift(BandedLinearSystem system, int r1, int r2) {
+		Fraction zero = new Fraction(0);
+		Fraction[] shifted = new Fraction[system.band[r1].length];
+		for (int i = 0; i < shifted.length; i++) shifted[i] = zero;
+		
+		for (int j = 0; j < shifted.length; j++) {
+			int i = j + r1 - r2;
+			if(i >= 0 && i < shifted.length) shifted[i] = system.band[r1][j];
+			else if(system.band[r1][j].signum() != 0) throw new IllegalArgumentException(String.format("Row %d does not fit in the band of row %d", r1, r2));
+		}
+		return shifted;
+	}
+	
+	
+	
+	// UTIL -------------------------------------------------------
+	
+	
+	
+	/**Returns the sparse system of the same elements.*/
+	public SparseLinearSystem toSparse() {
+		SparseLinearSystem sparse = new SparseLinearSystem(size, getWidth(), size);
+		for (int r = 0; r < size; r++) {
+			for (int c = getFirstColumn(r); c <= getLastColumn(r); c++) {
+				if(!isZero(r, c)) sparse.setElement(r, c, getElement(r, c));
+			}
+			for (int c = 0; c < equality[r].length; c++) {
+				if(equality[r][c].signum() != 0) sparse.setElement(r, size + c, equality[r][c]);
+			}
+		}
+		return sparse;
+	}
+	
+	/**Assigns every element of the banded system to the linear system of the same size.*/
+	public void assignTo(LinearSystem system) {
+		Fraction zero = new Fraction(0);
+		for (int r = 0; r < size; r++) {
+			for (int c = 0; c < getWidth(); c++) {
+				system.setElement(r, c, c >= size || isInBand(r, c) ? getElement(r, c) : zero);
+			}
+		}
+	}
+	
+	/**Returns the number of diagonals below the main diagonal holding a non-zero coefficient of the system.*/
+	private static int lowerBandwidth(LinearSystem system) {
+		requireSquare(system);
+		int bandwidth = 0;
+		for (int r = 0; r < system.getHeight(); r++) {
+			for (int c = 0; c < r - bandwidth; c++) {
+				if(!system.isZero(r, c)) bandwidth = r - c;
+			}
+		}
+		return bandwidth;
+	}
+	
+	/**Returns the number of diagonals above the main diagonal holding a non-zero coefficient of the system.*/
+	private static int upperBandwidth(LinearSystem system) {
+		int bandwidth = 0;
+		for (int r = 0; r < system.getHeight(); r++) {
+			for (int c = system.getCoefficientWidth() - 1; c > r + bandwidth; c--) {
+				if(!system.isZero(r, c)) bandwidth = c - r;
+			}
+		}
+		return bandwidth;
+	}
+	
+	/**Throws an IllegalArgumentException if the coefficients of the system are not square.*/
+	private static void requireSquare(LinearSystem system) {
+		if(system.getHeight() != system.getCoefficientWidth()) throw new IllegalArgumentException(String.format("Cannot store a %dx%d system as banded, the coefficients must be square", system.getHeight(), system.getCoefficientWidth()));
+	}
+}
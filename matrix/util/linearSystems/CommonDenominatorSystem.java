@@ -0,0 +1,182 @@
+package matrix.util.linearSystems;
+
+import java.math.BigInteger;
+
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+
+/***A linear system storing each row as integer numerators over a single positive row denominator. 
+ * Row additions and scalings are integer vector operations followed by one gcd normalization of the row, instead of a gcd for every element. 
+ * The fractions are only computed when the elements are read as a matrix (toString, getCoefficients, getEquality, etc.).*/
+public class CommonDenominatorSystem extends LinearSystem {
+	
+	//rows
+	private BigInteger[][] numerators;
+	private BigInteger[] denominators;
+	private boolean[] isStale;
+	
+	//constructor
+	public CommonDenominatorSystem(LinearSystem system) {
+		//a common denominator system is copied as a plain matrix, as the system constructor would otherwise call its clone, which calls this constructor
+		super(system instanceof CommonDenominatorSystem ? new FractionMatrix(system) : system, system.getCoefficientWidth());
+		
+		numerators = new BigInteger[getHeight()][];
+		denominators = new BigInteger[getHeight()];
+		isStale = new boolean[getHeight()];
+		if(system instanceof CommonDenominatorSystem) {
+			CommonDenominatorSystem source = (CommonDenominatorSystem) system;
+			for (int r = 0; r < getHeight(); r++) numerators[r] = source.numerators[r].clone();
+			System.arraycopy(source.denominators, 0, denominators, 0, getHeight());
+			return;
+		}
+		
+		for (int r = 0; r < getHeight(); r++) {
+			denominators[r] = FractionMatrix.rowDenominator(system, r);
+			numerators[r] = FractionMatrix.integerRow(system, r, denominators[r]);
+			normalize(r);
+		}
+	}
+	
+	/**Returns a specific element.*/
+	@Override
+	public Fraction getElement(int r, int c) {return Fraction.simplify(numerators[r][c], denominators[r]);}
+	
+	/**Assigns a specific element, moving the row to a common denominator with it.*/
+	@Override
+	public void setElement(int r, int c, Fraction f) {
+		BigInteger denominator = f.denominator().abs();
+		BigInteger lcm = denominators[r].divide(denominators[r].gcd(denominator)).multiply(denominator);
+		
+		multiply(numerators[r], lcm.divide(denominators[r]));
+		numerators[r][c] = f.numerator().multiply(lcm.divide(f.denominator()));
+		denominators[r] = lcm;
+		normalize(r);
+	}
+
+	/**Determines of a specific element is zero.*/
+	@Override
+	public boolean isZero(int r, int c) {return numerators[r][c].signum() == 0;}
+
+	/**Determines of a specific element is one.*/
+	@Override
+	public boolean isOne(int r, int c) {return numerators[r][c].equals(denominators[r]);}
+
+	/**Computes the scalar for the product of an element to be one.*/
+	@Override
+	public Fraction getScalar(int r, int c) {return getElement(r, c).powNegOne();}
+
+	/**Computes the scalar for multiplying one element (1) and adding that product to the other element (2) to get zero.*/
+	@Override
+	public Fraction getScalar(int r1, int c1, int r2, int c2) {return getElement(r2, c2).div(getElement(r1, c1)).negate();}
+
+	/***Returns true if the specified row is zero and false if at least on element is not zero.*/
+	@Override
+	public boolean isZeroRow(int r, int width) {
+		for (int c = 0; c < width; c++) {
+			if(numerators[r][c].signum() != 0) return false;
+		}
+		return true;
+	}
+	
+	// - - - - - - - - - - - - - - - - - - - - ROW OPERATIONS - - - - - - - - - - - - - - - - - - - - 
+	
+	/**Adds a scaled row (r1*scalar) to another (r2): n2/d2 + (s/t) * n1/d1 = (n2 * (t*d1/g) + n1 * (s*d2/g)) / (d2 * t*d1/g), where g = gcd(d2, t*d1).*/
+	@Override
+	protected void addRow(int r1, int r2, Fraction scalar){
+		BigInteger sourceDenominator = scalar.denominator().multiply(denominators[r1]);
+		BigInteger g = denominators[r2].gcd(sourceDenominator);
+		if(sourceDenominator.signum() < 0) g = g.negate();
+		
+		BigInteger targetFactor = sourceDenominator.divide(g);
+		BigInteger sourceFactor = scalar.numerator().multiply(denominators[r2].divide(g));
+		
+		BigInteger[] source = numerators[r1], target = numerators[r2];
+		for (int c = 0; c < target.length; c++) {
+			BigInteger value = targetFactor.equals(BigInteger.ONE) ? target[c] : target[c].multiply(targetFactor);
+			if(source[c].signum() != 0) value = value.add(source[c].multiply(sourceFactor)); // row-2 = row-2 + row1 * scalar
+			target[c] = value;
+		}
+		denominators[r2] = denominators[r2].multiply(targetFactor);
+		normalize(r2);
+	}
+	
+	/**Scales a row.*/
+	@Override
+	protected void scale(int r, Fraction scalar){
+		multiply(numerators[r], scalar.numerator());
+		denominators[r] = denominators[r].multiply(scalar.denominator());
+		normalize(r);
+	}
+	
+	/**Swaps the given rows.*/
+	@Override
+	protected void swap(int r1, int r2) {
+		super.swap(r1, r2);
+		
+		BigInteger[] t = numerators[r1];
+		numerators[r1] = numerators[r2];
+		numerators[r2] = t;
+		
+		BigInteger d = denominators[r1];
+		denominators[r1] = denominators[r2];
+		denominators[r2] = d;
+		
+		boolean s = isStale[r1];
+		isStale[r1] = isStale[r2];
+		isStale[r2] = s;
+	}
+	
+	/**Moves row r1 to r2 such that the total matrix is in the same order.*/
+	@Override
+	protected void move(int r1, int r2) {
+		int i = r2 > r1 ? 1 : -1;
+		for (int r = r1; r != r2; r += i) swap(r, r + i);
+	}
+	
+	/**Divides the row by the gcd of its numerators and denominator, keeping the denominator positive. The row elements are then stale.*/
+	private void normalize(int r) {
+		BigInteger[] row = numerators[r];
+		BigInteger gcd = denominators[r];
+		for (int c = 0; c < row.length && !gcd.equals(BigInteger.ONE); c++) {
+			if(row[c].signum() != 0) gcd = gcd.gcd(row[c]);
+		}
+		if(denominators[r].signum() < 0) gcd = gcd.negate();
+		
+		if(!gcd.equals(BigInteger.ONE)) {
+			for (int c = 0; c < row.length; c++) row[c] = row[c].divide(gcd);
+			denominators[r] = denominators[r].divide(gcd);
+		}
+		isStale[r] = true;
+	}
+	
+	/**Multiplies every numerator by the factor.*/
+	private static void multiply(BigInteger[] row, BigInteger factor) {
+		if(factor.equals(BigInteger.ONE)) return;
+		for (int c = 0; c < row.length; c++) row[c] = row[c].multiply(factor);
+	}
+	
+	
+	
+	// UTIL -------------------------------------------------------
+	
+	
+	
+	/**Writes the fractions of the stale rows into the elements.*/
+	@Override
+	protected void updateElements() {
+		if(isStale == null) return;
+		
+		for (int r = 0; r < getHeight(); r++) {
+			if(!isStale[r]) continue;
+			for (int c = 0; c < getWidth(); c++) {
+				elements[r][c] = getElement(r, c);
+			}
+			isStale[r] = false;
+		}
+	}
+	
+	/**Clones the system, keeping the common denominator rows.*/
+	@Override
+	public CommonDenominatorSystem clone() {return new CommonDenominatorSystem(this);}
+	
+}
@@ -1,6 +1,6 @@
 package matrix.util.linearSystems;
 
-import java.math.BigInteger;
+import java.io.IOException;
 
 import matrix.util.Fraction;
 import matrix.util.FractionMatrix;
@@ -25,11 +25,14 @@ public class LinearSystem extends FractionMatrix{
 	/**Returns the width of the coefficient.*/
 	public int getCoefficientWidth(){return coefficientWidth;}
 
+	/**Assigns a specific element.*/
+	public void setElement(int r, int c, Fraction f) {elements[r][c] = f;}
+
 	/**Determines of a specific element is zero.*/
-	public boolean isZero(int r, int c) {return elements[r][c].numerator().equals(BigInteger.ZERO);}
+	public boolean isZero(int r, int c) {return elements[r][c].signum() == 0;}
 
 	/**Determines of a specific element is zero.*/
-	public boolean isOne(int r, int c) {return elements[r][c].numerator().equals(BigInteger.ONE) && elements[r][c].denominator().equals(BigInteger.ONE);}
+	public boolean isOne(int r, int c) {return elements[r][c].isOne();}
 
 	/**Computes the scalar for the product of an element to be one.*/
 	public Fraction getScalar(int r, int c) {return elements[r][c].powNegOne();}
@@ -54,39 +57,51 @@ public class LinearSystem extends FractionMatrix{
 	// - - - - - - - - - - - - - - - - - - - - ROW OPERATIONS - - - - - - - - - - - - - - - - - - - - 
 	
 	/**Adds a scaled row (r1*scalar) to another (r2).*/
-	public static void addRows(LinearSystem totalMatrix, int r1, int r2, Fraction scalar){
-		for (int c = 0; c < totalMatrix.getWidth(); c++) {
-			if(totalMatrix.isZero(r1, c)) continue; 
+	public static void addRows(LinearSystem totalMatrix, int r1, int r2, Fraction scalar){totalMatrix.addRow(r1, r2, scalar);}
+	
+	/**Scales a row.*/
+	public static void scaleRow(LinearSystem totalMatrix, int r, Fraction scalar){totalMatrix.scale(r, scalar);}
+	
+	/**Swaps the given rows.*/
+	public static void swapRows(LinearSystem totalMatrix, int r1, int r2) {totalMatrix.swap(r1, r2);}
+	
+	/**Moves row r1 to r2 such that the total matrix is in the same order.*/
+	public static void moveRow(LinearSystem totalMatrix, int r1, int r2) {totalMatrix.move(r1, r2);}
+	
+	/**Adds a scaled row (r1*scalar) to another (r2), subclasses storing rows differently override the row operations.*/
+	protected void addRow(int r1, int r2, Fraction scalar){
+		for (int c = 0; c < getWidth(); c++) {
+			if(isZero(r1, c)) continue; 
 			
-			totalMatrix.elements[r2][c] = Fraction.sum(totalMatrix.elements[r2][c], totalMatrix.elements[r1][c].multi(scalar)); // row-2 = row-2 + row1 * scalar
+			elements[r2][c] = Fraction.sum(elements[r2][c], elements[r1][c].multi(scalar)); // row-2 = row-2 + row1 * scalar
 		}
 	}
 	
 	/**Scales a row.*/
-	public static void scaleRow(LinearSystem totalMatrix, int r, Fraction scalar){
-		for (int c = 0; c < totalMatrix.getWidth(); c++) {
-			if(totalMatrix.isZero(r, c)) continue;
-			totalMatrix.elements[r][c] = totalMatrix.elements[r][c].multi(scalar); // row = row * scalar
+	protected void scale(int r, Fraction scalar){
+		for (int c = 0; c < getWidth(); c++) {
+			if(isZero(r, c)) continue;
+			elements[r][c] = elements[r][c].multi(scalar); // row = row * scalar
 		}
 	}
 	
 	/**Swaps the given rows.*/
-	public static void swapRows(LinearSystem totalMatrix, int r1, int r2) {
-		Fraction[] t = copyRow(totalMatrix, r1);
-		assignRow(totalMatrix.elements[r1], totalMatrix.elements[r2]);
-		assignRow(totalMatrix.elements[r2], t);
+	protected void swap(int r1, int r2) {
+		Fraction[] t = copyRow(this, r1);
+		assignRow(elements[r1], elements[r2]);
+		assignRow(elements[r2], t);
 	}
 	
 	/**Moves row r1 to r2 such that the total matrix is in the same order.*/
-	public static void moveRow(LinearSystem totalMatrix, int r1, int r2) {
-		Fraction[] t = copyRow(totalMatrix, r1);
+	protected void move(int r1, int r2) {
+		Fraction[] t = copyRow(this, r1);
 		
 		int i = r2 > r1 ? 1 : -1;
 		for (int r = r1+i; i > 0 ? r <= r2 : r >= r2; r += i) {
-			assignRow(totalMatrix.elements[r - i], totalMatrix.elements[r]);
+			assignRow(elements[r - i], elements[r]);
 		}
 
-		assignRow(totalMatrix.elements[r2], t);
+		assignRow(elements[r2], t);
 	}
 	
 	/**Assigns the values of the row r into a2.*/
@@ -108,45 +123,72 @@ public class LinearSystem extends FractionMatrix{
 	
 	
 	/**Clones the fraction to a new instance with all of the same values.*/
-	public LinearSystem clone() {return new LinearSystem(new FractionMatrix(elements), coefficientWidth);}
+	public LinearSystem clone() {
+		updateElements();
+		return new LinearSystem(new FractionMatrix(elements), coefficientWidth);
+	}
+	
+	/**Assigns every element of the given system (of the same size) to this system.*/
+	public void assign(LinearSystem system) {
+		for (int r = 0; r < getHeight(); r++) {
+			for (int c = 0; c < getWidth(); c++) {
+				setElement(r, c, system.getElement(r, c));
+			}
+		}
+	}
 
 	/**Returns a string representation of the given fraction-matrix.*/
 	public static String toDoubleString(LinearSystem system, int digitCount) {
-		int zeroes = (int) Math.pow(10, digitCount);
-		return FractionMatrix.toNiceString(system, 
-				(int r, int c) -> defaultFormater(c, system.getWidth(), system.getCoefficientWidth(), "| ", " ", " | ", " |\n"), 
-				(Fraction f) -> {
-					double value = f.doubleValue();	
-					if(value % 1 == 0) return Integer.toString((int)value);	
-					else return Double.toString((double)(Math.round(value * zeroes)) / zeroes);
-				});
+		StringBuilder str = new StringBuilder();
+		FractionMatrix.render(() -> appendDoubleString(system, str, digitCount));
+		return str.toString();
 	}
 
 	/**Returns a string representation of the given fraction-matrix.*/
 	public static String toString(LinearSystem system) {
-		return FractionMatrix.toNiceString(system, 
-				(int r, int c) -> defaultFormater(c, system.getWidth(), system.getCoefficientWidth(),
-						"| ", " ", " | ", " |\n"), 
-				(Fraction f) -> Fraction.toString(f));
+		StringBuilder str = new StringBuilder();
+		FractionMatrix.render(() -> appendString(system, str));
+		return str.toString();
 	}
 
 	/**Returns a string representation of the given fraction-matrix.*/
 	public static String asLatex(LinearSystem system) {
-		return String.format("\\begin{bmatrix}\n%s\\end{bmatrix}\n", 
-				FractionMatrix.toNiceString(system, 
-					(int r, int c) -> defaultFormater(c, system.getWidth(), system.getCoefficientWidth(),
-							"\t", " & ", " & \\vrule & ", " \\\\\n"), 
-					(Fraction f) -> f.asLatex()));
-	}
-
-	/**The default way to format a linear system string.*/
-	private static String defaultFormater(int c, int matrixWidth, int coefficientWidth, String rowBegin, String columnDelimiter, String matrixDelimiter, String rowEnd) {
-		String format = "%s";
-		if(c == 0) format = rowBegin + format;
-		if(c < coefficientWidth - 1) format = format + columnDelimiter;
-		else if(c == coefficientWidth - 1) format = format + matrixDelimiter;
-		else format = format + rowEnd;
-		return format;
+		StringBuilder str = new StringBuilder();
+		FractionMatrix.render(() -> appendLatex(system, str));
+		return str.toString();
+	}
+
+	/**Writes the string representation of the given system to the appendable, with the coefficients and the equality separated by a bar.*/
+	public static void appendString(LinearSystem system, Appendable out) throws IOException {
+		FractionMatrix.appendNiceString(system, out, 
+				(int c) -> c == 0 ? "| " : "", 
+				(int c) -> defaultDelimiter(c, system.getCoefficientWidth(), " ", " | ", " |\n"), 
+				(Fraction f) -> Fraction.toString(f));
+	}
+	
+	/**Writes the latex representation of the given system to the appendable, with the coefficients and the equality separated by a vertical rule.*/
+	public static void appendLatex(LinearSystem system, Appendable out) throws IOException {
+		out.append("\\begin{bmatrix}\n");
+		FractionMatrix.appendNiceString(system, out, 
+				(int c) -> c == 0 ? "\t" : "", 
+				(int c) -> defaultDelimiter(c, system.getCoefficientWidth(), " & ", " & \\vrule & ", " \\\\\n"), 
+				(Fraction f) -> f.asLatex());
+		out.append("\\end{bmatrix}\n");
+	}
+	
+	/**Writes the double approximation of the given system, rounded to the given number of digits, to the appendable.*/
+	public static void appendDoubleString(LinearSystem system, Appendable out, int digitCount) throws IOException {
+		FractionMatrix.appendNiceString(system, out, 
+				(int c) -> c == 0 ? "| " : "", 
+				(int c) -> defaultDelimiter(c, system.getCoefficientWidth(), " ", " | ", " |\n"), 
+				FractionMatrix.doubleString(digitCount));
+	}
+	
+	/**The default string following column c of a linear system.*/
+	private static String defaultDelimiter(int c, int coefficientWidth, String columnDelimiter, String matrixDelimiter, String rowEnd) {
+		if(c < coefficientWidth - 1) return columnDelimiter;
+		else if(c == coefficientWidth - 1) return matrixDelimiter;
+		else return rowEnd;
 	}
 	
 	/**Parses from string.*/
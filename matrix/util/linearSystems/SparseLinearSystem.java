@@ -0,0 +1,192 @@
+package matrix.util.linearSystems;
+
+import java.util.Arrays;
+
+import matrix.util.Fraction;
+
+/***A linear system (total matrix) storing only the non-zero elements of each row, as column indices in increasing order with their values. 
+ * Memory and row operations scale with the number of non-zero elements.*/
+public class SparseLinearSystem {
+	
+	//matrix
+	private final int width, coefficientWidth;
+	private int[][] columns;
+	private Fraction[][] values;
+	private int[] sizes;
+	
+	//constructor
+	public SparseLinearSystem(int height, int width, int coefficientWidth) {
+		this.width = width;
+		this.coefficientWidth = coefficientWidth;
+		columns = new int[height][0];
+		values = new Fraction[height][0];
+		sizes = new int[height];
+	}
+	
+	public SparseLinearSystem(LinearSystem system) {
+		this(system.getHeight(), system.getWidth(), system.getCoefficientWidth());
+		
+		for (int r = 0; r < system.getHeight(); r++) {
+			int size = 0;
+			for (int c = 0; c < width; c++) {
+				if(!system.isZero(r, c)) size++;
+			}
+			
+			columns[r] = new int[size];
+			values[r] = new Fraction[size];
+			for (int c = 0; c < width; c++) {
+				if(system.isZero(r, c)) continue;
+				columns[r][sizes[r]] = c;
+				values[r][sizes[r]++] = system.getElement(r, c);
+			}
+		}
+	}
+	
+	//variables
+	public int getHeight(){return sizes.length;}
+	public int getWidth(){return width;}
+	public int getCoefficientWidth(){return coefficientWidth;}
+	
+	/**Returns the number of non-zero elements in a row.*/
+	public int getRowSize(int r) {return sizes[r];}
+	
+	/**Returns the column of the i'th non-zero element in a row.*/
+	public int getColumn(int r, int i) {return columns[r][i];}
+	
+	/**Returns the value of the i'th non-zero element in a row.*/
+	public Fraction getValue(int r, int i) {return values[r][i];}
+	
+	/**Returns the number of non-zero elements.*/
+	public long getNonZeroCount() {
+		long count = 0;
+		for (int size : sizes) count += size;
+		return count;
+	}
+	
+	/**Returns a specific element.*/
+	public Fraction getElement(int r, int c) {
+		int i = Arrays.binarySearch(columns[r], 0, sizes[r], c);
+		return i < 0 ? new Fraction(0) : values[r][i];
+	}
+	
+	/**Determines of a specific element is zero.*/
+	public boolean isZero(int r, int c) {return Arrays.binarySearch(columns[r], 0, sizes[r], c) < 0;}
+	
+	/**Assigns a specific element, inserting or removing it from the row.*/
+	public void setElement(int r, int c, Fraction f) {
+		int i = Arrays.binarySearch(columns[r], 0, sizes[r], c);
+		boolean isZero = f.numerator().signum() == 0;
+		
+		if(i >= 0 && !isZero) {
+			values[r][i] = f;
+		}else if(i >= 0) {
+			System.arraycopy(columns[r], i + 1, columns[r], i, sizes[r] - i - 1);
+			System.arraycopy(values[r], i + 1, values[r], i, sizes[r] - i - 1);
+			sizes[r]--;
+		}else if(!isZero) {
+			i = -i - 1;
+			if(sizes[r] == columns[r].length) {
+				columns[r] = Arrays.copyOf(columns[r], Math.max(4, 2 * sizes[r]));
+				values[r] = Arrays.copyOf(values[r], columns[r].length);
+			}
+			System.arraycopy(columns[r], i, columns[r], i + 1, sizes[r] - i);
+			System.arraycopy(values[r], i, values[r], i + 1, sizes[r] - i);
+			columns[r][i] = c;
+			values[r][i] = f;
+			sizes[r]++;
+		}
+	}
+	
+	/***Returns true if the specified row is zero and false if at least on element is not zero.*/
+	public boolean isZeroRow(int r, int width) {return sizes[r] == 0 || columns[r][0] >= width;}
+	
+	// - - - - - - - - - - - - - - - - - - - - ROW OPERATIONS - - - - - - - - - - - - - - - - - - - - 
+	
+	/**Adds a scaled row (r1*scalar) to another (r2), by merging the non-zero elements of both rows.*/
+	public static void addRows(SparseLinearSystem system, int r1, int r2, Fraction scalar){
+		int[] c1 = system.columns[r1], c2 = system.columns[r2];
+		Fraction[] v1 = system.values[r1], v2 = system.values[r2];
+		int s1 = system.sizes[r1], s2 = system.sizes[r2];
+		
+		int[] outColumns = new int[s1 + s2];
+		Fraction[] outValues = new Fraction[s1 + s2];
+		int i = 0, j = 0, size = 0;
+		while(i < s1 || j < s2) {
+			if(j == s2 || (i < s1 && c1[i] < c2[j])) {
+				outColumns[size] = c1[i];
+				outValues[size++] = v1[i++].multi(scalar);
+			}else if(i == s1 || c2[j] < c1[i]) {
+				outColumns[size] = c2[j];
+				outValues[size++] = v2[j++];
+			}else {
+				Fraction sum = v2[j].add(v1[i].multi(scalar)); // row-2 = row-2 + row1 * scalar
+				if(sum.numerator().signum() != 0) {
+					outColumns[size] = c2[j];
+					outValues[size++] = sum;
+				}
+				i++;
+				j++;
+			}
+		}
+		
+		system.columns[r2] = outColumns;
+		system.values[r2] = outValues;
+		system.sizes[r2] = size;
+	}
+	
+	/**Scales a row.*/
+	public static void scaleRow(SparseLinearSystem system, int r, Fraction scalar){
+		for (int i = 0; i < system.sizes[r]; i++) {
+			system.values[r][i] = system.values[r][i].multi(scalar); // row = row * scalar
+		}
+	}
+	
+	/**Swaps the given rows.*/
+	public static void swapRows(SparseLinearSystem system, int r1, int r2) {
+		int[] c = system.columns[r1];
+		system.columns[r1] = system.columns[r2];
+		system.columns[r2] = c;
+		
+		Fraction[] v = system.values[r1];
+		system.values[r1] = system.values[r2];
+		system.values[r2] = v;
+		
+		int s = system.sizes[r1];
+		system.sizes[r1] = system.sizes[r2];
+		system.sizes[r2] = s;
+	}
+	
+	/**Reorders the rows, such that row r becomes the old row order[r].*/
+	public static void permuteRows(SparseLinearSystem system, int[] order) {
+		int[][] columns = new int[order.length][];
+		Fraction[][] values = new Fraction[order.length][];
+		int[] sizes = new int[order.length];
+		for (int r = 0; r < order.length; r++) {
+			columns[r] = system.columns[order[r]];
+			values[r] = system.values[order[r]];
+			sizes[r] = system.sizes[order[r]];
+		}
+		system.columns = columns;
+		system.values = values;
+		system.sizes = sizes;
+	}
+	
+	
+	
+	// UTIL -------------------------------------------------------
+	
+	
+	
+	/**Assigns every element of the sparse system to the linear system of the same size.*/
+	public void assignTo(LinearSystem system) {
+		Fraction zero = new Fraction(0);
+		for (int r = 0; r < getHeight(); r++) {
+			int i = 0;
+			for (int c = 0; c < width; c++) {
+				if(i < sizes[r] && columns[r][i] == c) system.setElement(r, c, values[r][i++]);
+				else system.setElement(r, c, zero);
+			}
+		}
+	}
+	
+}
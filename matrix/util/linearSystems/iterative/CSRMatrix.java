@@ -0,0 +1,139 @@
+package matrix.util.linearSystems.iterative;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.linearSystems.SparseLinearSystem;
+
+/***The coefficients of a linear system as doubles in compressed sparse row form.
+ * The non-zero elements of row r are values[rowStart[r]] to values[rowStart[r + 1] - 1], with their columns in increasing order.*/
+public class CSRMatrix {
+	
+	//the number of non-zero elements below which a product is computed sequentially, and the rows of a parallel task
+	private static final int PARALLEL_THRESHOLD = 1 << 15;
+	private static final int ROW_BLOCK = 256;
+	
+	//elements
+	private final int height, width;
+	private final int[] rowStart, columns;
+	private final double[] values;
+	
+	//constructors
+	public CSRMatrix(int height, int width, int[] rowStart, int[] columns, double[] values) {
+		this.height = height;
+		this.width = width;
+		this.rowStart = rowStart;
+		this.columns = columns;
+		this.values = values;
+	}
+	
+	/***Reads the coefficients of the system, skipping the zeroes.*/
+	public CSRMatrix(LinearSystem system) {
+		height = system.getHeight();
+		width = system.getCoefficientWidth();
+		rowStart = new int[height + 1];
+		
+		int count = 0;
+		for (int r = 0; r < height; r++) {
+			for (int c = 0; c < width; c++) {
+				if(!system.isZero(r, c)) count++;
+			}
+		}
+		
+		columns = new int[count];
+		values = new double[count];
+		int i = 0;
+		for (int r = 0; r < height; r++) {
+			rowStart[r] = i;
+			for (int c = 0; c < width; c++) {
+				if(system.isZero(r, c)) continue;
+				columns[i] = c;
+				values[i++] = system.getElement(r, c).doubleValue();
+			}
+		}
+		rowStart[height] = i;
+	}
+	
+	/***Reads the coefficients of the sparse system, visiting only the stored elements.*/
+	public CSRMatrix(SparseLinearSystem system) {
+		height = system.getHeight();
+		width = system.getCoefficientWidth();
+		rowStart = new int[height + 1];
+		
+		int count = 0;
+		for (int r = 0; r < height; r++) {
+			for (int i = 0; i < system.getRowSize(r) && system.getColumn(r, i) < width; i++) count++;
+		}
+		
+		columns = new int[count];
+		values = new double[count];
+		int j = 0;
+		for (int r = 0; r < height; r++) {
+			rowStart[r] = j;
+			for (int i = 0; i < system.getRowSize(r) && system.getColumn(r, i) < width; i++) {
+				columns[j] = system.getColumn(r, i);
+				values[j++] = system.getValue(r, i).doubleValue();
+			}
+		}
+		rowStart[height] = j;
+	}
+	
+	//variables
+	public int getHeight() {return height;}
+	public int getWidth() {return width;}
+	public int getNonZeroCount() {return values.length;}
+	
+	/***Returns the index of the first element of row r, where row r ends at the first element of row r + 1.*/
+	public int getRowStart(int r) {return rowStart[r];}
+	
+	/***Returns the column of the i'th non-zero element.*/
+	public int getColumn(int i) {return columns[i];}
+	
+	/***Returns the value of the i'th non-zero element.*/
+	public double getValue(int i) {return values[i];}
+	
+	/***Returns the element at row r and column c, which is zero if it is not stored.*/
+	public double getElement(int r, int c) {
+		int i = Arrays.binarySearch(columns, rowStart[r], rowStart[r + 1], c);
+		return i < 0 ? 0 : values[i];
+	}
+	
+	/***Returns the diagonal elements.*/
+	public double[] getDiagonal() {
+		double[] diagonal = new double[Math.min(height, width)];
+		for (int r = 0; r < diagonal.length; r++) diagonal[r] = getElement(r, r);
+		return diagonal;
+	}
+	
+	/***Computes y = Ax, splitting the rows of large matrices across the common fork-join pool.*/
+	public void multiply(double[] x, double[] y) {
+		if(values.length < PARALLEL_THRESHOLD) {
+			multiply(x, y, 0, height);
+			return;
+		}
+		
+		IntStream.range(0, (height + ROW_BLOCK - 1) / ROW_BLOCK).parallel()
+				.forEach(b -> multiply(x, y, b * ROW_BLOCK, Math.min(height, (b + 1) * ROW_BLOCK)));
+	}
+	
+	/***Computes the rows from start to end (exclusive) of y = Ax.*/
+	private void multiply(double[] x, double[] y, int start, int end) {
+		for (int r = start; r < end; r++) {
+			double sum = 0;
+			for (int i = rowStart[r]; i < rowStart[r + 1]; i++) sum += values[i] * x[columns[i]];
+			y[r] = sum;
+		}
+	}
+	
+	/***Returns true if the matrix equals its transpose.*/
+	public boolean isSymmetric() {
+		if(height != width) return false;
+		for (int r = 0; r < height; r++) {
+			for (int i = rowStart[r]; i < rowStart[r + 1]; i++) {
+				if(getElement(columns[i], r) != values[i]) return false;
+			}
+		}
+		return true;
+	}
+}
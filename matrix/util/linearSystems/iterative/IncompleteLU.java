@@ -0,0 +1,75 @@
+package matrix.util.linearSystems.iterative;
+
+import java.util.Arrays;
+
+/***The incomplete LU factorization ILU(0), which keeps only the elements of L and U where the coefficients are non-zero.
+ * L (with a unit diagonal) and U are stored together with the sparsity of the coefficients.*/
+public class IncompleteLU implements Preconditioner {
+	
+	//the factors, in the same compressed rows as the coefficients
+	private final int height;
+	private final int[] rowStart, columns, diagonal;
+	private final double[] factors;
+	
+	//constructor
+	public IncompleteLU(CSRMatrix a) {
+		if(a.getHeight() != a.getWidth()) throw new IllegalArgumentException(String.format("Cannot factorize a %dx%d matrix, the coefficients must be square", a.getHeight(), a.getWidth()));
+		
+		height = a.getHeight();
+		rowStart = new int[height + 1];
+		columns = new int[a.getNonZeroCount()];
+		factors = new double[a.getNonZeroCount()];
+		diagonal = new int[height];
+		
+		for (int r = 0; r <= height; r++) rowStart[r] = a.getRowStart(r);
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = a.getColumn(i);
+			factors[i] = a.getValue(i);
+		}
+		
+		factorize();
+	}
+	
+	/***Eliminates in place, row by row, ignoring fill-in (row-r = row-r - l * row-k for every stored k < r).*/
+	private void factorize() {
+		int[] position = new int[height];
+		Arrays.fill(position, -1);
+		
+		for (int r = 0; r < height; r++) {
+			diagonal[r] = -1;
+			for (int i = rowStart[r]; i < rowStart[r + 1]; i++) {
+				position[columns[i]] = i;
+				if(columns[i] == r) diagonal[r] = i;
+			}
+			
+			for (int i = rowStart[r]; i < rowStart[r + 1] && columns[i] < r; i++) {
+				int k = columns[i];
+				double l = factors[i] / factors[diagonal[k]];
+				factors[i] = l;
+				
+				for (int j = diagonal[k] + 1; j < rowStart[k + 1]; j++) {
+					int p = position[columns[j]];
+					if(p != -1) factors[p] -= l * factors[j];
+				}
+			}
+			
+			if(diagonal[r] == -1 || factors[diagonal[r]] == 0) throw new IllegalArgumentException(String.format("ILU(0) needs a non-zero pivot, row %d has none", r));
+			for (int i = rowStart[r]; i < rowStart[r + 1]; i++) position[columns[i]] = -1;
+		}
+	}
+	
+	/***Computes z = (LU)^-1 r by forward and back substitution.*/
+	@Override
+	public void apply(double[] r, double[] z) {
+		for (int i = 0; i < height; i++) {
+			double sum = r[i];
+			for (int j = rowStart[i]; j < diagonal[i]; j++) sum -= factors[j] * z[columns[j]];
+			z[i] = sum;
+		}
+		for (int i = height - 1; i >= 0; i--) {
+			double sum = z[i];
+			for (int j = diagonal[i] + 1; j < rowStart[i + 1]; j++) sum -= factors[j] * z[columns[j]];
+			z[i] = sum / factors[diagonal[i]];
+		}
+	}
+}
@@ -0,0 +1,311 @@
+package matrix.util.linearSystems.iterative;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.linearSystems.SparseLinearSystem;
+
+/***Approximate solving of large (sparse) systems with square coefficients in doubles, by preconditioned krylov subspace methods.
+ * An iteration stops when the residual is within the tolerance relative to the equality, or after the iteration limit.*/
+public class KrylovSolver {
+	
+	//defaults
+	private static final double DEFAULT_TOLERANCE = 1e-10;
+	private static final int DEFAULT_MAX_ITERATIONS = 10_000;
+	private static final int DEFAULT_RESTART = 50;
+	
+	/***The available krylov methods.*/
+	public enum Method {
+		/***Conjugate gradients, for symmetric positive definite coefficients.*/
+		CONJUGATE_GRADIENT,
+		/***Stabilized bi-conjugate gradients, for general coefficients.*/
+		BICGSTAB,
+		/***Restarted generalized minimal residuals, for general coefficients.*/
+		GMRES
+	}
+	
+	//fields
+	private final Method method;
+	private final Preconditioner.Type preconditioner;
+	private final double tolerance;
+	private final int maxIterations, restart;
+	
+	//constructors
+	public KrylovSolver(Method method, Preconditioner.Type preconditioner) {this(method, preconditioner, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS, DEFAULT_RESTART);}
+	
+	public KrylovSolver(Method method, Preconditioner.Type preconditioner, double tolerance, int maxIterations) {this(method, preconditioner, tolerance, maxIterations, DEFAULT_RESTART);}
+	
+	public KrylovSolver(Method method, Preconditioner.Type preconditioner, double tolerance, int maxIterations, int restart) {
+		if(tolerance <= 0 || maxIterations < 1 || restart < 1) throw new IllegalArgumentException(String.format("Invalid tolerance %g, iteration limit %d or restart %d", tolerance, maxIterations, restart));
+		
+		this.method = method;
+		this.preconditioner = preconditioner;
+		this.tolerance = tolerance;
+		this.maxIterations = maxIterations;
+		this.restart = restart;
+	}
+	
+	/***Solves every equality of the system approximately, returning one result per equality column.*/
+	public List<Result> solve(LinearSystem system) {
+		CSRMatrix a = new CSRMatrix(system);
+		
+		double[][] equalities = new double[system.getWidth() - system.getCoefficientWidth()][system.getHeight()];
+		for (int c = 0; c < equalities.length; c++) {
+			for (int r = 0; r < system.getHeight(); r++) {
+				equalities[c][r] = system.getElement(r, system.getCoefficientWidth() + c).doubleValue();
+			}
+		}
+		return solve(a, equalities);
+	}
+	
+	/***Solves every equality of the sparse system approximately, returning one result per equality column.*/
+	public List<Result> solve(SparseLinearSystem system) {
+		CSRMatrix a = new CSRMatrix(system);
+		
+		double[][] equalities = new double[system.getWidth() - system.getCoefficientWidth()][system.getHeight()];
+		for (int r = 0; r < system.getHeight(); r++) {
+			for (int i = 0; i < system.getRowSize(r); i++) {
+				int c = system.getColumn(r, i) - system.getCoefficientWidth();
+				if(c >= 0) equalities[c][r] = system.getValue(r, i).doubleValue();
+			}
+		}
+		return solve(a, equalities);
+	}
+	
+	/***Solves Ax = b for each of the equalities, sharing the preconditioner.*/
+	private List<Result> solve(CSRMatrix a, double[][] equalities) {
+		Preconditioner m = createPreconditioner(a);
+		List<Result> results = new ArrayList<>(equalities.length);
+		for (double[] b : equalities) results.add(solve(a, b, m));
+		return results;
+	}
+	
+	/***Solves Ax = b approximately.*/
+	public Result solve(CSRMatrix a, double[] b) {return solve(a, b, createPreconditioner(a));}
+	
+	/***Returns the preconditioner for the coefficients, checking that they are square.*/
+	private Preconditioner createPreconditioner(CSRMatrix a) {
+		if(a.getHeight() != a.getWidth()) throw new IllegalArgumentException(String.format("Cannot solve a %dx%d system iteratively, the coefficients must be square", a.getHeight(), a.getWidth()));
+		return preconditioner.create(a);
+	}
+	
+	/***Solves Ax = b approximately using the given preconditioner.*/
+	private Result solve(CSRMatrix a, double[] b, Preconditioner m) {
+		if(b.length != a.getHeight()) throw new IllegalArgumentException(String.format("Expected an equality of length %d, got %d", a.getHeight(), b.length));
+		
+		double bNorm = norm(b);
+		if(bNorm == 0) return new Result(new double[b.length], 0, 0, true);
+		
+		switch(method) {
+		case CONJUGATE_GRADIENT: return conjugateGradient(a, b, m, bNorm);
+		case BICGSTAB: return biCGStab(a, b, m, bNorm);
+		default: return gmres(a, b, m, bNorm);
+		}
+	}
+	
+	
+	
+	// METHODS -------------------------------------------------------------------------------------------
+	
+	
+	
+	/***Preconditioned conjugate gradients, starting from zero.*/
+	private Result conjugateGradient(CSRMatrix a, double[] b, Preconditioner m, double bNorm) {
+		int n = b.length;
+		double[] x = new double[n], r = b.clone(), z = new double[n], p = new double[n], q = new double[n];
+		
+		m.apply(r, z);
+		System.arraycopy(z, 0, p, 0, n);
+		double rz = dot(r, z);
+		
+		for (int i = 1; i <= maxIterations; i++) {
+			a.multiply(p, q);
+			double pq = dot(p, q);
+			if(pq == 0) return finish(a, b, x, i, bNorm);
+			
+			double alpha = rz / pq;
+			axpy(alpha, p, x);
+			axpy(-alpha, q, r);
+			
+			if(norm(r) <= tolerance * bNorm) return finish(a, b, x, i, bNorm);
+			
+			m.apply(r, z);
+			double rzNext = dot(r, z), beta = rzNext / rz;
+			rz = rzNext;
+			for (int j = 0; j < n; j++) p[j] = z[j] + beta * p[j];
+		}
+		return finish(a, b, x, maxIterations, bNorm);
+	}
+	
+	/***Preconditioned stabilized bi-conjugate gradients (van der Vorst), starting from zero.*/
+	private Result biCGStab(CSRMatrix a, double[] b, Preconditioner m, double bNorm) {
+		int n = b.length;
+		double[] x = new double[n], r = b.clone(), shadow = b.clone();
+		double[] p = new double[n], v = new double[n], s = new double[n], t = new double[n], y = new double[n], z = new double[n];
+		double rho = 1, alpha = 1, omega = 1;
+		
+		for (int i = 1; i <= maxIterations; i++) {
+			double rhoNext = dot(shadow, r);
+			if(rhoNext == 0 || omega == 0) return finish(a, b, x, i, bNorm);
+			
+			//p = r + beta * (p - omega * v)
+			double beta = (rhoNext / rho) * (alpha / omega);
+			rho = rhoNext;
+			for (int j = 0; j < n; j++) p[j] = r[j] + beta * (p[j] - omega * v[j]);
+			
+			m.apply(p, y);
+			a.multiply(y, v);
+			alpha = rho / dot(shadow, v);
+			
+			//s = r - alpha * v, stopping early if it is small enough
+			for (int j = 0; j < n; j++) s[j] = r[j] - alpha * v[j];
+			axpy(alpha, y, x);
+			if(norm(s) <= tolerance * bNorm) return finish(a, b, x, i, bNorm);
+			
+			m.apply(s, z);
+			a.multiply(z, t);
+			omega = dot(t, s) / dot(t, t);
+			
+			axpy(omega, z, x);
+			for (int j = 0; j < n; j++) r[j] = s[j] - omega * t[j];
+			
+			if(norm(r) <= tolerance * bNorm) return finish(a, b, x, i, bNorm);
+		}
+		return finish(a, b, x, maxIterations, bNorm);
+	}
+	
+	/***Right preconditioned GMRES, restarted after a number of iterations, starting from zero.
+	 * The least squares problem of the Hessenberg matrix is kept triangular by givens rotations, giving the residual in every iteration.*/
+	private Result gmres(CSRMatrix a, double[] b, Preconditioner m, double bNorm) {
+		int n = b.length, size = Math.min(restart, n);
+		double[] x = new double[n], r = new double[n], w = new double[n], z = new double[n];
+		double[][] basis = new double[size + 1][n], hessenberg = new double[size + 1][size];
+		double[] cos = new double[size], sin = new double[size], g = new double[size + 1];
+		double residual = bNorm;
+		
+		int iterations = 0;
+		while(iterations < maxIterations) {
+			
+			//r = b - Ax
+			a.multiply(x, r);
+			for (int j = 0; j < n; j++) r[j] = b[j] - r[j];
+			residual = norm(r);
+			if(residual <= tolerance * bNorm) return finish(a, b, x, iterations, bNorm);
+			
+			for (int j = 0; j < n; j++) basis[0][j] = r[j] / residual;
+			Arrays.fill(g, 0);
+			g[0] = residual;
+			
+			int k = 0;
+			while(k < size && iterations < maxIterations) {
+				iterations++;
+				
+				//w = A M^-1 v_k, orthogonalized against the basis (modified gram-schmidt)
+				m.apply(basis[k], z);
+				a.multiply(z, w);
+				for (int i = 0; i <= k; i++) {
+					hessenberg[i][k] = dot(w, basis[i]);
+					axpy(-hessenberg[i][k], basis[i], w);
+				}
+				hessenberg[k + 1][k] = norm(w);
+				if(hessenberg[k + 1][k] != 0) {
+					for (int j = 0; j < n; j++) basis[k + 1][j] = w[j] / hessenberg[k + 1][k];
+				}
+				
+				//applying the previous rotations to the new column, and eliminating its last element
+				for (int i = 0; i < k; i++) {
+					double h = cos[i] * hessenberg[i][k] + sin[i] * hessenberg[i + 1][k];
+					hessenberg[i + 1][k] = -sin[i] * hessenberg[i][k] + cos[i] * hessenberg[i + 1][k];
+					hessenberg[i][k] = h;
+				}
+				double length = Math.hypot(hessenberg[k][k], hessenberg[k + 1][k]);
+				cos[k] = length == 0 ? 1 : hessenberg[k][k] / length;
+				sin[k] = length == 0 ? 0 : hessenberg[k + 1][k] / length;
+				hessenberg[k][k] = length;
+				hessenberg[k + 1][k] = 0;
+				g[k + 1] = -sin[k] * g[k];
+				g[k] = cos[k] * g[k];
+				
+				residual = Math.abs(g[k + 1]);
+				k++;
+				if(residual <= tolerance * bNorm || length == 0) break;
+			}
+			
+			//x = x + M^-1 V y, where y solves the triangular system
+			double[] y = new double[k];
+			for (int i = k - 1; i >= 0; i--) {
+				double sum = g[i];
+				for (int j = i + 1; j < k; j++) sum -= hessenberg[i][j] * y[j];
+				y[i] = sum / hessenberg[i][i];
+			}
+			Arrays.fill(w, 0);
+			for (int i = 0; i < k; i++) axpy(y[i], basis[i], w);
+			m.apply(w, z);
+			axpy(1, z, x);
+			
+			if(residual <= tolerance * bNorm) break;
+		}
+		
+		return finish(a, b, x, iterations, bNorm);
+	}
+	
+	/***Returns the result with the true residual, as the residual updated by an iteration drifts in floating point.*/
+	private Result finish(CSRMatrix a, double[] b, double[] x, int iterations, double bNorm) {
+		double[] r = new double[b.length];
+		a.multiply(x, r);
+		for (int j = 0; j < b.length; j++) r[j] = b[j] - r[j];
+		
+		double residual = norm(r);
+		return new Result(x, iterations, residual / bNorm, residual <= tolerance * bNorm);
+	}
+	
+	
+	
+	// UTIL -------------------------------------------------------------------------------------------
+	
+	
+	
+	/***Returns the dot product of two vectors.*/
+	private static double dot(double[] u, double[] v) {
+		double sum = 0;
+		for (int i = 0; i < u.length; i++) sum += u[i] * v[i];
+		return sum;
+	}
+	
+	/***Returns the euclidean length of a vector.*/
+	private static double norm(double[] u) {return Math.sqrt(dot(u, u));}
+	
+	/***Computes y = y + alpha * x.*/
+	private static void axpy(double alpha, double[] x, double[] y) {
+		for (int i = 0; i < x.length; i++) y[i] += alpha * x[i];
+	}
+	
+	/***The approximate solution of one equality.*/
+	public static class Result {
+		private final double[] solution;
+		private final int iterations;
+		private final double residual;
+		private final boolean hasConverged;
+		
+		private Result(double[] solution, int iterations, double residual, boolean hasConverged) {
+			this.solution = solution;
+			this.iterations = iterations;
+			this.residual = residual;
+			this.hasConverged = hasConverged;
+		}
+		
+		/***Returns the approximate solution.*/
+		public double[] getSolution() {return solution;}
+		
+		/***Returns the number of iterations used.*/
+		public int getIterations() {return iterations;}
+		
+		/***Returns the norm of the final residual relative to the norm of the equality.*/
+		public double getResidual() {return residual;}
+		
+		/***Returns true if the residual is within the tolerance.*/
+		public boolean hasConverged() {return hasConverged;}
+	}
+}
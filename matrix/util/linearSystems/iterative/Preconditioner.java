@@ -0,0 +1,40 @@
+package matrix.util.linearSystems.iterative;
+
+/***An approximation M of the coefficients, applied as z = M^-1 r in every iteration of a krylov solver.*/
+public interface Preconditioner {
+	
+	/***Computes z = M^-1 r.*/
+	void apply(double[] r, double[] z);
+	
+	/***The available preconditioners.*/
+	public enum Type {
+		/***No preconditioning, M = I.*/
+		NONE,
+		/***The diagonal of the coefficients.*/
+		JACOBI,
+		/***The incomplete LU factorization of the coefficients, with the sparsity of the coefficients.*/
+		ILU0;
+		
+		/***Creates the preconditioner for the given coefficients.*/
+		public Preconditioner create(CSRMatrix a) {
+			switch(this) {
+			case JACOBI: return jacobi(a);
+			case ILU0: return new IncompleteLU(a);
+			default: return none();
+			}
+		}
+	}
+	
+	/***Returns the identity, which leaves the residual as it is.*/
+	static Preconditioner none() {return (double[] r, double[] z) -> System.arraycopy(r, 0, z, 0, r.length);}
+	
+	/***Returns the diagonal (Jacobi) preconditioner, where zeroes on the diagonal are treated as ones.*/
+	static Preconditioner jacobi(CSRMatrix a) {
+		double[] inverse = a.getDiagonal();
+		for (int r = 0; r < inverse.length; r++) inverse[r] = inverse[r] == 0 ? 1 : 1 / inverse[r];
+		
+		return (double[] r, double[] z) -> {
+			for (int i = 0; i < r.length; i++) z[i] = r[i] * inverse[i];
+		};
+	}
+}
@@ -0,0 +1,108 @@
+package matrix.util.linearSystems.solvers;
+
+import matrix.util.Fraction;
+import matrix.util.inputOutput.Snitch;
+import matrix.util.linearSystems.BandedLinearSystem;
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.linearSystems.SparseLinearSystem;
+
+/***Gauss-Jordan elimination on a banded linear system, visiting only the rows and columns within the band.
+ * Each pivot eliminates the lowerBandwidth rows below it, over the upper bandwidth of its row, and the back substitution clears the column above it,
+ * such that the solve costs O(n * lower * (lower + upper)) fraction operations and O(n * bandwidth) memory.
+ * Rows are only swapped for a zero pivot, so a tridiagonal system without zero pivots is solved by the Thomas algorithm.
+ * If a column has no pivot within the band the coefficients are singular, and the partially eliminated system is left to SparseElemination,
+ * as its reduced row echelon form does not fit in the band.*/
+public class BandedElemination implements Solver {
+	
+	//fields
+	private Snitch output;
+	private LinearSystem totalMatrix;
+	private BandedLinearSystem system;
+	private SparseLinearSystem reduced;
+	private boolean isSolved;
+	
+	//constructor
+	public BandedElemination(Snitch output, LinearSystem totalMatrix) {
+		this(output, new BandedLinearSystem(totalMatrix));
+		this.totalMatrix = totalMatrix;
+	}
+	
+	public BandedElemination(Snitch output, BandedLinearSystem system) {
+		this.output = output;
+		this.system = system;
+		isSolved = false;
+	}
+	
+	/***Getter for is solved boolean.*/
+	@Override
+	public boolean isSolved() {return isSolved;}
+	
+	/***Getter for the banded system, which holds [I | X] after a solve of nonsingular coefficients.*/
+	public BandedLinearSystem getSystem() {return system;}
+	
+	/***Returns the reduced row echelon form of singular coefficients, or null if the coefficients were nonsingular.*/
+	public SparseLinearSystem getReduced() {return reduced;}
+	
+	/***Solves the linear system (total matrix), leaving the reduced row echelon form in the system.*/
+	@Override
+	public void solve(){
+		if(!eliminate()) {
+			SparseElemination sparse = new SparseElemination(output, system.toSparse());
+			sparse.solve();
+			reduced = sparse.getSystem();
+			isSolved = sparse.isSolved();
+			if(totalMatrix != null) reduced.assignTo(totalMatrix);
+		}else {
+			substitute();
+			isSolved = true;
+			if(totalMatrix != null) system.assignTo(totalMatrix);
+		}
+		
+		if(totalMatrix != null && isSolved) output.printSystem(totalMatrix);
+	}
+	
+	/***Eliminates the band below the diagonal, swapping in the nearest row below for a zero pivot. Returns false if a column has no pivot.*/
+	private boolean eliminate() {
+		int n = system.getHeight(), lowerBandwidth = system.getLowerBandwidth();
+		for (int k = 0; k < n; k++) {
+			int last = Math.min(n - 1, k + lowerBandwidth);
+			
+			if(system.isZero(k, k)) {
+				int r = k + 1;
+				while(r <= last && system.isZero(r, k)) r++;
+				if(r > last) return false;
+				
+				BandedLinearSystem.swapRows(system, k, r);
+				output.printRowSwap(k, r);
+			}
+			
+			Fraction pivot = system.getElement(k, k);
+			for (int r = k + 1; r <= last; r++) {
+				if(system.isZero(r, k)) continue;
+				Fraction scalar = system.getElement(r, k).div(pivot).negate();
+				BandedLinearSystem.addRows(system, k, r, scalar);
+				output.printRowAddition(k, r, scalar);
+			}
+		}
+		return true;
+	}
+	
+	/***Scales each pivot to one and clears the band above it, from the last row up.*/
+	private void substitute() {
+		int n = system.getHeight(), upperBandwidth = system.getLowerBandwidth() + system.getUpperBandwidth();
+		for (int k = n - 1; k >= 0; k--) {
+			Fraction scalar = system.getElement(k, k).powNegOne();
+			if(!scalar.isOne()) {
+				BandedLinearSystem.scaleRow(system, k, scalar);
+				output.printRowScale(k, scalar);
+			}
+			
+			for (int r = Math.max(0, k - upperBandwidth); r < k; r++) {
+				if(system.isZero(r, k)) continue;
+				Fraction f = system.getElement(r, k).negate();
+				BandedLinearSystem.addRows(system, k, r, f);
+				output.printRowAddition(k, r, f);
+			}
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package matrix.util.linearSystems.solvers;
+
+import java.math.BigInteger;
+
+import matrix.util.*;
+import matrix.util.inputOutput.Snitch;
+import matrix.util.linearSystems.LinearSystem;
+
+/***Fraction-free Gauss-Jordan elimination (Bareiss). 
+ * The denominators are cleared once, after which every step is an integer cross multiplication followed by an exact division with the previous pivot. 
+ * No gcd is computed until the result is converted back into fractions, and every intermediate value is a minor of the integer matrix, which bounds its size.*/
+public class BareissElemination implements Solver {
+	
+	//fields
+	private Snitch output;
+	private LinearSystem totalMatrix;
+	private boolean isSolved;
+	
+	//constructor
+	public BareissElemination(Snitch output, LinearSystem totalMatrix) {
+		this.output = output;
+		this.totalMatrix = totalMatrix;
+		isSolved = false;
+	}
+	
+	/***Getter for is solved boolean.*/
+	@Override
+	public boolean isSolved() {return isSolved;}
+	
+	/***Solves a linear system (total matrix), leaving the reduced row echelon form in the system.*/
+	@Override
+	public void solve(){
+		BigInteger[][] integerMatrix = clearDenominators(totalMatrix);
+		BigInteger[] divisor = new BigInteger[] {BigInteger.ONE};
+		int rank = computeReduced(integerMatrix, totalMatrix.getCoefficientWidth(), divisor);
+		
+		boolean inconsistent = isInconsitent(integerMatrix, rank, divisor[0]);
+		assign(totalMatrix, integerMatrix, divisor[0]);
+		if(inconsistent) return;
+		
+		output.printSystem(totalMatrix);
+		isSolved = true;
+	}
+	
+	/***Scales each row by the least common multiple of its denominators, returning the resulting integer matrix.*/
+	private BigInteger[][] clearDenominators(LinearSystem totalMatrix){
+		BigInteger[][] integerMatrix = new BigInteger[totalMatrix.getHeight()][totalMatrix.getWidth()];
+		
+		boolean computedElements = false;
+		for (int r = 0; r < totalMatrix.getHeight(); r++) {
+			BigInteger lcm = FractionMatrix.rowDenominator(totalMatrix, r);
+			integerMatrix[r] = FractionMatrix.integerRow(totalMatrix, r, lcm);
+			
+			if(lcm.equals(BigInteger.ONE)) continue;
+			output.printRowScale(r, new Fraction(lcm));
+			computedElements = true;
+		}
+		
+		if(computedElements) {
+			assign(totalMatrix, integerMatrix, BigInteger.ONE);
+			output.printSystem(totalMatrix);
+		}
+		
+		return integerMatrix;
+	}
+	
+	/***Computes the fraction-free reduced row echelon form of the integer matrix, returning the rank of the coefficients. 
+	 * Afterwards every pivot is equal to divisor[0].*/
+	private int computeReduced(BigInteger[][] integerMatrix, int coefficientWidth, BigInteger[] divisor) {
+		
+		BigInteger previous = BigInteger.ONE;
+		int pivotRow = 0;
+		for (int c = 0; c < coefficientWidth && pivotRow < integerMatrix.length; c++) {
+			if(integerMatrix[pivotRow][c].signum() == 0 && !fixZeroPivot(integerMatrix, pivotRow, c)) continue;
+			
+			BigInteger pivot = integerMatrix[pivotRow][c];
+			for (int r = 0; r < integerMatrix.length; r++) {
+				if(r == pivotRow) continue;
+				eliminate(integerMatrix, pivotRow, r, c, pivot, previous);
+			}
+			
+			output.printFractionFreeStep(pivotRow, c, pivot, previous);
+			if(!output.isSilent()) {
+				assign(totalMatrix, integerMatrix, BigInteger.ONE);
+				output.printSystem(totalMatrix);
+			}
+			
+			previous = pivot;
+			pivotRow++;
+		}
+		
+		divisor[0] = previous;
+		return pivotRow;
+	}
+	
+	/***Computes row-r2 = (pivot * row-r2 - row-r2[c] * row-r1) / previous, where every division is exact.*/
+	private static void eliminate(BigInteger[][] integerMatrix, int r1, int r2, int c, BigInteger pivot, BigInteger previous) {
+		BigInteger[] source = integerMatrix[r1], target = integerMatrix[r2];
+		BigInteger factor = target[c];
+		
+		//rows beneath the pivot are zero left of the pivot column
+		int start = r2 > r1 ? c + 1 : 0;
+		
+		if(factor.signum() == 0) {
+			if(pivot.equals(previous)) return;
+			for (int j = start; j < target.length; j++) {
+				if(target[j].signum() == 0) continue;
+				target[j] = target[j].multiply(pivot).divide(previous);
+			}
+			return;
+		}
+		
+		for (int j = start; j < target.length; j++) {
+			if(j == c) continue;
+			BigInteger value = target[j].multiply(pivot);
+			if(source[j].signum() != 0) value = value.subtract(factor.multiply(source[j]));
+			target[j] = value.divide(previous);
+		}
+		target[c] = BigInteger.ZERO;
+	}
+
+	/***Loops down through the column to find any non-zero element to swap with. Returns true if the given element has been fixed, otherwise false.*/
+	private boolean fixZeroPivot(BigInteger[][] integerMatrix, int pivotRow, int c) {
+		for (int r = pivotRow + 1; r < integerMatrix.length; r++) {
+			if(integerMatrix[r][c].signum() == 0) continue;
+			
+			BigInteger[] t = integerMatrix[r];
+			integerMatrix[r] = integerMatrix[pivotRow];
+			integerMatrix[pivotRow] = t;
+			output.printRowSwap(r, pivotRow);
+			return true;
+		}
+		return false;
+	}
+	
+	/***Determines inconsistency; Returning true if a zero row of coefficients has a non-zero equality, otherwise false.*/
+	private boolean isInconsitent(BigInteger[][] integerMatrix, int rank, BigInteger divisor) {
+		for (int r = rank; r < integerMatrix.length; r++) {
+			for (int e = totalMatrix.getCoefficientWidth(); e < totalMatrix.getWidth(); e++) {
+				if(integerMatrix[r][e].signum() == 0) continue;
+				output.printInconsistency(Fraction.simplify(integerMatrix[r][e], divisor));
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/***Assigns the integer matrix divided by the divisor to the total matrix.*/
+	private static void assign(LinearSystem totalMatrix, BigInteger[][] integerMatrix, BigInteger divisor) {
+		for (int r = 0; r < integerMatrix.length; r++) {
+			for (int c = 0; c < integerMatrix[r].length; c++) {
+				totalMatrix.setElement(r, c, Fraction.simplify(integerMatrix[r][c], divisor));
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,127 @@
+package matrix.util.linearSystems.solvers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.linearSystems.solvers.SystemSolver.Method;
+
+/***Solves many independent linear systems concurrently on an executor, each in place and silently (with its own Snitch).
+ * The results are handed to the caller's thread, either in the order of the systems or in the order they complete.
+ * At most a fixed number of systems are submitted without their results having been handed over,
+ * such that a large stream of systems is never read far ahead of the solving.*/
+public class BatchSolver {
+	
+	//the default number of systems in flight per processor
+	private static final int IN_FLIGHT_FACTOR = 4;
+	
+	//fields
+	private final Executor executor;
+	private final Method method;
+	private final int maxInFlight;
+	
+	//constructors
+	public BatchSolver() {this(Method.GAUSS);}
+	
+	public BatchSolver(Method method) {this(ForkJoinPool.commonPool(), method, IN_FLIGHT_FACTOR * Runtime.getRuntime().availableProcessors());}
+	
+	public BatchSolver(Executor executor, Method method, int maxInFlight) {
+		if(maxInFlight < 1) throw new IllegalArgumentException("At least one system must be allowed in flight, got " + maxInFlight);
+		
+		this.executor = executor;
+		this.method = method;
+		this.maxInFlight = maxInFlight;
+	}
+	
+	/***Solves every system, returning the results in the order of the systems.*/
+	public List<Result> solve(Collection<LinearSystem> systems) throws InterruptedException {
+		List<Result> results = new ArrayList<>(systems.size());
+		solve(systems.iterator(), results::add, true);
+		return results;
+	}
+	
+	/***Solves every system of the stream, handing each result to the consumer in the order of the systems.*/
+	public void solveInOrder(Stream<LinearSystem> systems, Consumer<Result> consumer) throws InterruptedException {solve(systems.iterator(), consumer, true);}
+	
+	/***Solves every system of the stream, handing each result to the consumer as soon as it is solved.*/
+	public void solveAsCompleted(Stream<LinearSystem> systems, Consumer<Result> consumer) throws InterruptedException {solve(systems.iterator(), consumer, false);}
+	
+	/***Submits the systems while fewer than maxInFlight results are waiting to be handed over,
+	 * otherwise hands over the results that are ready. The consumer is only called from the current thread.*/
+	private void solve(Iterator<LinearSystem> systems, Consumer<Result> consumer, boolean isOrdered) throws InterruptedException {
+		BlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+		Map<Integer, Result> waiting = new HashMap<>();
+		int submitted = 0, handed = 0;
+		
+		while(systems.hasNext() || handed < submitted) {
+			
+			//submitting the next system if there is room
+			if(systems.hasNext() && submitted - handed < maxInFlight) {
+				LinearSystem system = systems.next();
+				int index = submitted++;
+				executor.execute(() -> completed.add(solve(index, system)));
+				continue;
+			}
+			
+			//handing over the completed results
+			Result result = completed.take();
+			if(!isOrdered) {
+				consumer.accept(result);
+				handed++;
+				continue;
+			}
+			
+			waiting.put(result.index, result);
+			while(waiting.containsKey(handed)) {
+				consumer.accept(waiting.remove(handed));
+				handed++;
+			}
+		}
+	}
+	
+	/***Solves a single system, keeping anything thrown in the result, as the batch would otherwise wait for it forever.*/
+	private Result solve(int index, LinearSystem system) {
+		try {
+			return new Result(index, system, SystemSolver.solve(system, true, method), null);
+		}catch(Throwable exception) {
+			return new Result(index, system, false, exception);
+		}
+	}
+	
+	/***The outcome of solving one system of a batch.*/
+	public static class Result {
+		private final int index;
+		private final LinearSystem system;
+		private final boolean isSolved;
+		private final Throwable exception;
+		
+		private Result(int index, LinearSystem system, boolean isSolved, Throwable exception) {
+			this.index = index;
+			this.system = system;
+			this.isSolved = isSolved;
+			this.exception = exception;
+		}
+		
+		/***Returns the position of the system in the batch.*/
+		public int getIndex() {return index;}
+		
+		/***Returns the system, which is left in reduced row echelon form if it was solved.*/
+		public LinearSystem getSystem() {return system;}
+		
+		/***Returns true if the system was solved, and false if an inconsistency was found or the solver failed.*/
+		public boolean isSolved() {return isSolved;}
+		
+		/***Returns what was thrown while solving, or null if the solver finished.*/
+		public Throwable getException() {return exception;}
+	}
+}
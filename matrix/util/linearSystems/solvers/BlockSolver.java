@@ -0,0 +1,233 @@
+package matrix.util.linearSystems.solvers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+import matrix.util.inputOutput.Snitch;
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.linearSystems.solvers.SystemSolver.Method;
+
+/***Decomposes a linear system into independent blocks, the connected components of the graph joining each row to the columns of its non-zero coefficients.
+ * No row operation mixes two blocks, so each block is copied out and solved silently using the given method (MODULAR by default), the blocks in parallel,
+ * and the reduced blocks are scattered back with the pivot rows ordered by their pivot columns, which is the reduced row echelon form of the whole system.
+ * The elimination then costs as much as the blocks, and the modular bounds grow with the largest block, rather than the whole system. 
+ * The number of blocks and the size of the largest, the inconsistency of every inconsistent block and the scattered system are reported to the snitch, 
+ * and the row operations and bit-lengths of the blocks are added to the metrics.*/
+public class BlockSolver implements Solver {
+	
+	//fields
+	private Snitch output;
+	private LinearSystem totalMatrix;
+	private Method method;
+	private SolverMetrics metrics;
+	private List<Block> blocks;
+	private boolean isSolved;
+	
+	//constructors
+	public BlockSolver(Snitch output, LinearSystem totalMatrix) {this(output, totalMatrix, Method.MODULAR);}
+	
+	public BlockSolver(Snitch output, LinearSystem totalMatrix, Method method) {this(output, totalMatrix, method, SolverMetrics.DISABLED);}
+	
+	public BlockSolver(Snitch output, LinearSystem totalMatrix, Method method, SolverMetrics metrics) {
+		if(method == Method.BLOCKS) throw new IllegalArgumentException("The blocks cannot themselves be solved using BLOCKS");
+		
+		this.output = output;
+		this.totalMatrix = totalMatrix;
+		this.method = method;
+		this.metrics = metrics;
+		isSolved = false;
+	}
+	
+	/***Getter for is solved boolean.*/
+	@Override
+	public boolean isSolved() {return isSolved;}
+	
+	/***Returns the blocks of the system, or null before solving.*/
+	public List<Block> getBlocks() {return blocks;}
+	
+	/***Solves the linear system (total matrix) block by block, leaving the reduced row echelon form in the system.*/
+	@Override
+	public void solve() {
+		blocks = decompose(totalMatrix);
+		Block largest = blocks.stream().max(Comparator.comparingInt(Block::getSize)).orElse(new Block(new int[0], new int[0]));
+		output.printBlocks(blocks.size(), largest.getHeight(), largest.getWidth());
+		
+		LinearSystem[] systems = new LinearSystem[blocks.size()];
+		Fraction[] inconsistencies = new Fraction[blocks.size()];
+		SolverMetrics[] blockMetrics = new SolverMetrics[blocks.size()];
+		IntStream.range(0, blocks.size()).parallel().forEach(i -> {
+			Block block = blocks.get(i);
+			
+			//the rows are padded with zero rows up to the columns, as the elimination expects at least as many rows as coefficient columns
+			systems[i] = block.extract(totalMatrix, Math.max(block.getHeight(), block.getWidth()));
+			if(block.getWidth() == 0) {
+				inconsistencies[i] = findNonZero(systems[i]);
+				return;
+			}
+			
+			Snitch blockOutput = new Snitch(true);
+			blockMetrics[i] = metrics.isEnabled() ? new SolverMetrics() : SolverMetrics.DISABLED;
+			if(!SystemSolver.solve(systems[i], blockOutput, method, blockMetrics[i])) inconsistencies[i] = blockOutput.getInconsistency();
+		});
+		
+		isSolved = true;
+		for (int i = 0; i < blocks.size(); i++) {
+			if(blockMetrics[i] != null) metrics.add(blockMetrics[i]);
+			if(inconsistencies[i] == null) continue;
+			output.printInconsistency(inconsistencies[i]);
+			isSolved = false;
+		}
+		
+		scatter(systems);
+		output.printSystem(totalMatrix);
+	}
+	
+	/***Returns the blocks of the system, in the order of their first rows, followed by the block of the rows without a non-zero coefficient.
+	 * The columns without a non-zero coefficient belong to no block, as nothing determines them.*/
+	public static List<Block> decompose(LinearSystem system) {
+		int height = system.getHeight(), width = system.getCoefficientWidth();
+		
+		//the union-find forest of the rows (0 to height) and the columns (height to height + width)
+		int[] parents = new int[height + width];
+		for (int i = 0; i < parents.length; i++) parents[i] = i;
+		
+		boolean[] isZeroRow = new boolean[height], isZeroColumn = new boolean[width];
+		Arrays.fill(isZeroColumn, true);
+		for (int r = 0; r < height; r++) {
+			isZeroRow[r] = true;
+			for (int c = 0; c < width; c++) {
+				if(system.isZero(r, c)) continue;
+				union(parents, r, height + c);
+				isZeroRow[r] = isZeroColumn[c] = false;
+			}
+		}
+		
+		//the rows and columns of each root, in increasing order
+		int[] indices = new int[height + width];
+		Arrays.fill(indices, -1);
+		List<List<Integer>> rows = new ArrayList<>(), columns = new ArrayList<>();
+		List<Integer> zeroRows = new ArrayList<>();
+		for (int i = 0; i < height + width; i++) {
+			if(i < height ? isZeroRow[i] : isZeroColumn[i - height]) {
+				if(i < height) zeroRows.add(i);
+				continue;
+			}
+			
+			int root = find(parents, i);
+			if(indices[root] < 0) {
+				indices[root] = rows.size();
+				rows.add(new ArrayList<>());
+				columns.add(new ArrayList<>());
+			}
+			if(i < height) rows.get(indices[root]).add(i);
+			else columns.get(indices[root]).add(i - height);
+		}
+		
+		List<Block> blocks = new ArrayList<>(rows.size() + 1);
+		for (int i = 0; i < rows.size(); i++) blocks.add(new Block(toArray(rows.get(i)), toArray(columns.get(i))));
+		if(!zeroRows.isEmpty()) blocks.add(new Block(toArray(zeroRows), new int[0]));
+		return blocks;
+	}
+	
+	/***Assigns the rows of the solved blocks to the system, ordered by their first non-zero coefficients, and the rows without one last.*/
+	private void scatter(LinearSystem[] systems) {
+		int width = totalMatrix.getCoefficientWidth();
+		
+		//the block and row of each row of the result, with the column of its first non-zero coefficient
+		List<int[]> order = new ArrayList<>(totalMatrix.getHeight());
+		for (int i = 0; i < systems.length; i++) {
+			int[] columns = blocks.get(i).columns;
+			for (int r = 0; r < blocks.get(i).getHeight(); r++) {
+				int c = 0;
+				while(c < columns.length && systems[i].isZero(r, c)) c++;
+				order.add(new int[] {c < columns.length ? columns[c] : width, i, r});
+			}
+		}
+		order.sort(Comparator.comparingInt(o -> o[0]));
+		
+		Fraction zero = new Fraction(0);
+		for (int r = 0; r < order.size(); r++) {
+			LinearSystem system = systems[order.get(r)[1]];
+			int[] columns = blocks.get(order.get(r)[1]).columns;
+			int row = order.get(r)[2];
+			
+			for (int c = 0; c < width; c++) totalMatrix.setElement(r, c, zero);
+			for (int c = 0; c < columns.length; c++) totalMatrix.setElement(r, columns[c], system.getElement(row, c));
+			for (int c = width; c < totalMatrix.getWidth(); c++) totalMatrix.setElement(r, c, system.getElement(row, columns.length + c - width));
+		}
+	}
+	
+	/***Returns the first non-zero element of the system, or null if every element is zero.*/
+	private static Fraction findNonZero(LinearSystem system) {
+		for (int r = 0; r < system.getHeight(); r++) {
+			for (int c = 0; c < system.getWidth(); c++) {
+				if(!system.isZero(r, c)) return system.getElement(r, c);
+			}
+		}
+		return null;
+	}
+	
+	/***Returns the root of the tree of i, halving the path on the way.*/
+	private static int find(int[] parents, int i) {
+		while(parents[i] != i) {
+			parents[i] = parents[parents[i]];
+			i = parents[i];
+		}
+		return i;
+	}
+	
+	/***Joins the trees of i and j.*/
+	private static void union(int[] parents, int i, int j) {
+		int a = find(parents, i), b = find(parents, j);
+		if(a != b) parents[Math.max(a, b)] = Math.min(a, b);
+	}
+	
+	/***Returns the integers of the list as an array.*/
+	private static int[] toArray(List<Integer> list) {return list.stream().mapToInt(Integer::intValue).toArray();}
+	
+	/***An independent block of a linear system, the rows and the coefficient columns that only meet each other, in increasing order.*/
+	public static class Block {
+		private final int[] rows, columns;
+		
+		private Block(int[] rows, int[] columns) {
+			this.rows = rows;
+			this.columns = columns;
+		}
+		
+		/***Returns the rows of the block.*/
+		public int[] getRows() {return rows.clone();}
+		
+		/***Returns the coefficient columns of the block.*/
+		public int[] getColumns() {return columns.clone();}
+		
+		/***Returns the number of rows.*/
+		public int getHeight() {return rows.length;}
+		
+		/***Returns the number of coefficient columns.*/
+		public int getWidth() {return columns.length;}
+		
+		/***Returns the number of coefficients of the block.*/
+		public int getSize() {return rows.length * columns.length;}
+		
+		/***Returns the linear system of the block, the coefficients of its rows and columns and every equality column.*/
+		public LinearSystem extract(LinearSystem system) {return extract(system, rows.length);}
+		
+		/***Returns the linear system of the block, followed by zero rows up to the given height.*/
+		LinearSystem extract(LinearSystem system, int height) {
+			int equalityWidth = system.getWidth() - system.getCoefficientWidth();
+			Fraction[][] elements = new Fraction[height][columns.length + equalityWidth];
+			Fraction zero = new Fraction(0);
+			for (int r = rows.length; r < height; r++) Arrays.fill(elements[r], zero);
+			for (int r = 0; r < rows.length; r++) {
+				for (int c = 0; c < columns.length; c++) elements[r][c] = system.getElement(rows[r], columns[c]);
+				for (int c = 0; c < equalityWidth; c++) elements[r][columns.length + c] = system.getElement(rows[r], system.getCoefficientWidth() + c);
+			}
+			return new LinearSystem(new FractionMatrix(elements), columns.length);
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package matrix.util.linearSystems.solvers;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.modular.ModularMatrix;
+import matrix.util.modular.PrimeField;
+import matrix.util.modular.RationalReconstruction;
+
+/***The rank and the determinant of the coefficients of a linear system, computed without eliminating it in fractions.
+ * The rank is found modulo a random prime below 2^62, so it costs one elimination in longs. It can only come out too small,
+ * which requires the prime to divide every non-zero minor of the size of the rank, and is therefore very unlikely.
+ * The determinant is exact, found either from its images modulo enough primes or by fraction-free elimination.*/
+public class Determinant {
+	
+	/***The ways of computing an exact determinant.*/
+	public enum Method {
+		/***Determinants modulo fixed primes, as many as the hadamard bound requires, combined with the chinese remainder theorem. The primes are eliminated in parallel.*/
+		CHINESE_REMAINDER,
+		/***Fraction-free (Bareiss) elimination of the rows multiplied to integers.*/
+		BAREISS
+	}
+	
+	//the bit-length of the random primes of the rank
+	private static final int RANK_PRIME_BITS = 62;
+	
+	/***Returns the rank of the coefficients of the system (probabilistic, see Determinant).*/
+	public static int rank(LinearSystem system) {return rank(system.getCoefficients());}
+	
+	/***Returns the rank of the matrix (probabilistic, see Determinant).*/
+	public static int rank(FractionMatrix m) {
+		while(true) {
+			PrimeField field = new PrimeField(BigInteger.probablePrime(RANK_PRIME_BITS, ThreadLocalRandom.current()).longValueExact());
+			ModularMatrix reduced = reduce(m, field);
+			if(reduced != null) return reduced.rank();
+		}
+	}
+	
+	/***Returns the indices of rows of the matrix that are linearly independent, as many as its rank (probabilistic, see Determinant). 
+	 * The rows are independent modulo a prime, so they are always independent, only their number can come out too small.*/
+	static int[] independentRows(FractionMatrix m) {
+		while(true) {
+			PrimeField field = new PrimeField(BigInteger.probablePrime(RANK_PRIME_BITS, ThreadLocalRandom.current()).longValueExact());
+			ModularMatrix reduced = reduce(FractionMatrix.transpose(m), field);
+			if(reduced == null) continue;
+			
+			//the pivot columns of the transpose are independent rows
+			int[] pivots = new int[Math.min(m.getHeight(), m.getWidth())];
+			int rank = reduced.reduceRowEchelon(m.getHeight(), pivots);
+			return Arrays.copyOf(pivots, rank);
+		}
+	}
+	
+	/***Returns true if the square coefficients of the system have no inverse, such that the system has no unique solution (probabilistic, see Determinant).*/
+	public static boolean isSingular(LinearSystem system) {
+		requireSquare(system.getHeight(), system.getCoefficientWidth());
+		return rank(system) < system.getHeight();
+	}
+	
+	/***Returns the exact determinant of the square coefficients of the system, computed by the chinese remainder theorem.*/
+	public static Fraction determinant(LinearSystem system) {return determinant(system.getCoefficients(), Method.CHINESE_REMAINDER);}
+	
+	/***Returns the exact determinant of the square matrix, computed using the given method.*/
+	public static Fraction determinant(FractionMatrix m, Method method) {
+		requireSquare(m.getHeight(), m.getWidth());
+		
+		//multiplying row r by d_r multiplies the determinant by d_r
+		BigInteger[][] integerMatrix = new BigInteger[m.getHeight()][];
+		BigInteger denominator = BigInteger.ONE;
+		for (int r = 0; r < m.getHeight(); r++) {
+			BigInteger rowDenominator = FractionMatrix.rowDenominator(m, r);
+			integerMatrix[r] = FractionMatrix.integerRow(m, r, rowDenominator);
+			denominator = denominator.multiply(rowDenominator);
+		}
+		
+		BigInteger determinant = method == Method.BAREISS ? bareiss(integerMatrix) : chineseRemainder(integerMatrix);
+		return Fraction.simplify(determinant, denominator);
+	}
+	
+	/***Returns the determinant of the integer matrix from its images modulo primes whose product exceeds twice the hadamard bound.*/
+	static BigInteger chineseRemainder(BigInteger[][] integerMatrix) {
+		
+		int primeCount = primeCount(integerMatrix);
+		PrimeField.prime(primeCount - 1);
+		
+		long[] images = IntStream.range(0, primeCount).parallel().mapToLong(i -> {
+			PrimeField field = new PrimeField(PrimeField.prime(i));
+			return ModularMatrix.reduce(integerMatrix, field).determinant();
+		}).toArray();
+		
+		BigInteger x = BigInteger.ZERO, modulus = BigInteger.ONE;
+		for (int i = 0; i < primeCount; i++) {
+			PrimeField field = new PrimeField(PrimeField.prime(i));
+			long mInverse = field.inverse(field.reduce(modulus));
+			x = RationalReconstruction.combine(x, modulus, field, mInverse, images[i]);
+			modulus = modulus.multiply(field.bigPrime());
+		}
+		
+		//the determinant is the representative in the symmetric range
+		return x.compareTo(modulus.shiftRight(1)) > 0 ? x.subtract(modulus) : x;
+	}
+	
+	/***Returns the number of primes whose product exceeds twice the hadamard bound of the integer matrix, which bounds the determinant and every minor.*/
+	static int primeCount(BigInteger[][] integerMatrix) {
+		
+		//|det| <= sqrt(hadamardSquared), and every prime has at least 61 bits
+		int bits = DixonLifting.hadamardSquared(integerMatrix).bitLength() / 2 + 2;
+		return bits / (Long.SIZE - 3) + 1;
+	}
+	
+	/***Returns the determinant of the integer matrix by fraction-free elimination, where every division is exact.*/
+	private static BigInteger bareiss(BigInteger[][] integerMatrix) {
+		int n = integerMatrix.length;
+		BigInteger[][] a = new BigInteger[n][];
+		for (int r = 0; r < n; r++) a[r] = integerMatrix[r].clone();
+		
+		BigInteger previous = BigInteger.ONE;
+		boolean isNegated = false;
+		for (int k = 0; k < n; k++) {
+			int r = k;
+			while(r < n && a[r][k].signum() == 0) r++;
+			if(r == n) return BigInteger.ZERO;
+			
+			if(r != k) {
+				BigInteger[] t = a[r];
+				a[r] = a[k];
+				a[k] = t;
+				isNegated = !isNegated;
+			}
+			
+			//a[i][j] = (a[i][j] * a[k][k] - a[i][k] * a[k][j]) / previous
+			for (int i = k + 1; i < n; i++) {
+				for (int j = k + 1; j < n; j++) {
+					a[i][j] = a[i][j].multiply(a[k][k]).subtract(a[i][k].multiply(a[k][j])).divide(previous);
+				}
+			}
+			previous = a[k][k];
+		}
+		return isNegated ? previous.negate() : previous;
+	}
+	
+	/***Reduces the fractions of the matrix into the field, returning null if a denominator is divisible by the prime.*/
+	private static ModularMatrix reduce(FractionMatrix m, PrimeField field) {
+		long[][] elements = new long[m.getHeight()][m.getWidth()];
+		for (int r = 0; r < m.getHeight(); r++) {
+			for (int c = 0; c < m.getWidth(); c++) {
+				elements[r][c] = RationalReconstruction.reduce(m.getElement(r, c), field);
+				if(elements[r][c] == -1) return null;
+			}
+		}
+		return new ModularMatrix(field, elements);
+	}
+	
+	/***Throws an IllegalArgumentException if the matrix is not square.*/
+	private static void requireSquare(int height, int width) {
+		if(height != width) throw new IllegalArgumentException(String.format("Cannot compute the determinant of a %dx%d matrix, the coefficients must be square", height, width));
+	}
+}
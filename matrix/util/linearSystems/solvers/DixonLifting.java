@@ -0,0 +1,221 @@
+package matrix.util.linearSystems.solvers;
+
+import java.math.BigInteger;
+
+import matrix.util.*;
+import matrix.util.inputOutput.Snitch;
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.modular.*;
+
+/***Dixon p-adic lifting for systems with square and nonsingular coefficients. 
+ * The coefficients are inverted once modulo a prime p, after which each step computes the next p-adic digit of the solution by matrix-vector products 
+ * and divides the residual by p exactly. The solution is recovered by rational reconstruction and verified against the system. 
+ * Systems that are not square, or that are singular modulo the first primes, are left to ModularElemination.*/
+public class DixonLifting implements Solver {
+	
+	//the number of primes tried before the coefficients are assumed to be singular
+	private static final int PRIME_ATTEMPTS = 3;
+	
+	//fields
+	private Snitch output;
+	private LinearSystem totalMatrix;
+	private boolean isSolved;
+	
+	//constructor
+	public DixonLifting(Snitch output, LinearSystem totalMatrix) {
+		this.output = output;
+		this.totalMatrix = totalMatrix;
+		isSolved = false;
+	}
+	
+	/***Getter for is solved boolean.*/
+	@Override
+	public boolean isSolved() {return isSolved;}
+	
+	/***Solves a linear system (total matrix), leaving the reduced row echelon form in the system.*/
+	@Override
+	public void solve(){
+		Fraction[][] solution = null;
+		if(totalMatrix.getHeight() == totalMatrix.getCoefficientWidth()) solution = lift(FractionMatrix.clearDenominators(totalMatrix));
+		
+		if(solution == null) {
+			ModularElemination modular = new ModularElemination(output, totalMatrix);
+			modular.solve();
+			isSolved = modular.isSolved();
+			return;
+		}
+		
+		int n = totalMatrix.getCoefficientWidth();
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < totalMatrix.getWidth(); c++) {
+				totalMatrix.setElement(r, c, c < n ? new Fraction(r == c ? 1 : 0) : solution[r][c - n]);
+			}
+		}
+		output.printSystem(totalMatrix);
+		isSolved = true;
+	}
+	
+	/***Returns the solution of the integer system (one column per equality), or null if the coefficients are singular modulo every tried prime.*/
+	private Fraction[][] lift(BigInteger[][] integerMatrix) {
+		int n = integerMatrix.length, equalityWidth = integerMatrix[0].length - n;
+		
+		//inverting the coefficients modulo a prime
+		ModularMatrix inverse = null;
+		for (int i = 0; i < PRIME_ATTEMPTS && inverse == null; i++) {
+			PrimeField field = new PrimeField(PrimeField.prime(i));
+			inverse = coefficients(integerMatrix, field).inverse();
+		}
+		if(inverse == null) return null;
+		
+		PrimeField field = inverse.getField();
+		long[][] smallCoefficients = smallCoefficients(integerMatrix, field);
+		
+		//the residual starts as the equality, and a column of digits is computed for each equality
+		BigInteger[][] residual = new BigInteger[equalityWidth][n];
+		BigInteger[][] accumulated = new BigInteger[equalityWidth][n];
+		for (int c = 0; c < equalityWidth; c++) {
+			for (int r = 0; r < n; r++) {
+				residual[c][r] = integerMatrix[r][n + c];
+				accumulated[c][r] = BigInteger.ZERO;
+			}
+		}
+		
+		//by cramer's rule every numerator and denominator is bounded by the hadamard bound, reconstruction needs p^steps > 2 * bound^2
+		int maxSteps = hadamardSquared(integerMatrix).bitLength() / (field.bigPrime().bitLength() - 1) + 2;
+		
+		BigInteger power = BigInteger.ONE;
+		long[] digits = new long[n];
+		for (int step = 1, nextCheck = 1; step <= maxSteps; step++) {
+			for (int c = 0; c < equalityWidth; c++) {
+				
+				//x = inverse * (residual mod p)
+				long[] reduced = new long[n];
+				for (int r = 0; r < n; r++) reduced[r] = field.reduce(residual[c][r]);
+				for (int r = 0; r < n; r++) {
+					long[] row = inverse.getRow(r);
+					long sum = 0;
+					for (int l = 0; l < n; l++) {
+						if(reduced[l] == 0) continue;
+						sum = field.add(sum, field.multi(row[l], reduced[l]));
+					}
+					digits[r] = field.fromField(sum);
+					if(digits[r] != 0) accumulated[c][r] = accumulated[c][r].add(power.multiply(BigInteger.valueOf(digits[r])));
+				}
+				
+				//residual = (residual - coefficients * x) / p
+				for (int r = 0; r < n; r++) {
+					BigInteger product = smallCoefficients != null ? dot(smallCoefficients[r], digits) : dot(integerMatrix[r], digits);
+					residual[c][r] = residual[c][r].subtract(product).divide(field.bigPrime());
+				}
+			}
+			power = power.multiply(field.bigPrime());
+			
+			if(step != nextCheck && step != maxSteps) continue;
+			nextCheck *= 2;
+			
+			output.printLiftingSteps(step, field.prime());
+			Fraction[][] solution = reconstruct(accumulated, power);
+			if(solution != null && verify(integerMatrix, solution)) return solution;
+		}
+		return null;
+	}
+	
+	/***Returns the coefficients reduced modulo the prime of the field.*/
+	static ModularMatrix coefficients(BigInteger[][] integerMatrix, PrimeField field) {
+		int n = integerMatrix.length;
+		long[][] elements = new long[n][n];
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++) {
+				elements[r][c] = field.reduce(integerMatrix[r][c]);
+			}
+		}
+		return new ModularMatrix(field, elements);
+	}
+	
+	/***Returns the coefficients as longs, if they are small enough that a row times a vector of digits fits in 128 bits, otherwise null.*/
+	private static long[][] smallCoefficients(BigInteger[][] integerMatrix, PrimeField field) {
+		int n = integerMatrix.length;
+		
+		long[][] coefficients = new long[n][n];
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++) {
+				if(!Int128.fits(integerMatrix[r][c].bitLength() + 1, field.bigPrime().bitLength(), n)) return null;
+				coefficients[r][c] = integerMatrix[r][c].longValue();
+			}
+		}
+		return coefficients;
+	}
+	
+	/***Computes the dot product of a row and the digits.*/
+	private static BigInteger dot(long[] row, long[] digits) {
+		Int128 sum = new Int128();
+		for (int l = 0; l < digits.length; l++) {
+			if(row[l] == 0 || digits[l] == 0) continue;
+			sum.multiAdd(row[l], digits[l]);
+		}
+		return sum.toBigInteger();
+	}
+	
+	/***Computes the dot product of the coefficients of a row and the digits.*/
+	private static BigInteger dot(BigInteger[] row, long[] digits) {
+		BigInteger sum = BigInteger.ZERO;
+		for (int l = 0; l < digits.length; l++) {
+			if(row[l].signum() == 0 || digits[l] == 0) continue;
+			sum = sum.add(row[l].multiply(BigInteger.valueOf(digits[l])));
+		}
+		return sum;
+	}
+	
+	/***Returns the square of the hadamard bound of the integer matrix, that is the product of the squared lengths of its rows.*/
+	static BigInteger hadamardSquared(BigInteger[][] integerMatrix) {
+		BigInteger bound = BigInteger.ONE;
+		for (BigInteger[] row : integerMatrix) {
+			BigInteger length = BigInteger.ZERO;
+			for (BigInteger value : row) length = length.add(value.multiply(value));
+			if(length.signum() != 0) bound = bound.multiply(length);
+		}
+		return bound;
+	}
+	
+	/***Returns the fractions of the accumulated p-adic solution (one row per equality), or null if some cannot be reconstructed yet.*/
+	private static Fraction[][] reconstruct(BigInteger[][] accumulated, BigInteger power) {
+		int n = accumulated[0].length;
+		Fraction[][] solution = new Fraction[n][accumulated.length];
+		for (int c = 0; c < accumulated.length; c++) {
+			Fraction[] column = RationalReconstruction.reconstruct(accumulated[c], power);
+			if(column == null) return null;
+			for (int r = 0; r < n; r++) solution[r][c] = column[r];
+		}
+		return solution;
+	}
+	
+	/***Returns true if the coefficients times the solution equals the equality, checked in integers column by column.*/
+	static boolean verify(BigInteger[][] integerMatrix, Fraction[][] solution) {
+		int n = integerMatrix.length;
+		for (int c = 0; c < solution[0].length; c++) {
+			
+			//the column over a single denominator
+			BigInteger denominator = BigInteger.ONE;
+			for (int r = 0; r < n; r++) {
+				BigInteger d = solution[r][c].denominator();
+				denominator = denominator.divide(denominator.gcd(d)).multiply(d);
+			}
+			
+			BigInteger[] numerators = new BigInteger[n];
+			for (int r = 0; r < n; r++) {
+				numerators[r] = solution[r][c].numerator().multiply(denominator.divide(solution[r][c].denominator()));
+			}
+			
+			for (int r = 0; r < n; r++) {
+				BigInteger sum = BigInteger.ZERO;
+				for (int l = 0; l < n; l++) {
+					if(integerMatrix[r][l].signum() == 0 || numerators[l].signum() == 0) continue;
+					sum = sum.add(integerMatrix[r][l].multiply(numerators[l]));
+				}
+				if(!sum.equals(integerMatrix[r][n + c].multiply(denominator))) return false;
+			}
+		}
+		return true;
+	}
+	
+}
@@ -0,0 +1,308 @@
+package matrix.util.linearSystems.solvers;
+
+import java.math.BigInteger;
+
+import matrix.util.*;
+import matrix.util.inputOutput.Snitch;
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.modular.PrimeField;
+
+/***Mixed precision solving for systems with square coefficients.
+ * The coefficients are factorized once in doubles (LU with partial pivoting), after which each step solves for the exact integer residual in doubles,
+ * adds a scaled and rounded correction to the solution and computes the new residual exactly. Every step gains roughly as many bits as the coefficients are well conditioned.
+ * The fractions are recovered from the binary approximation by continued fractions and verified against the system.
+ * Systems that are not square, singular (checked modulo a prime) or too badly conditioned in doubles, or that fail verification, are left to GaussElemination.*/
+public class DoubleRefinement implements Solver {
+	
+	//the bits of the largest correction of a step, and the bits of the error estimate that are not trusted
+	private static final int CORRECTION_BITS = 48;
+	private static final int SAFETY_BITS = 8;
+	
+	//the fewest bits a step must gain, below which the doubles are too inaccurate for the coefficients
+	private static final int MIN_GAIN_BITS = 4;
+	
+	//fields
+	private Snitch output;
+	private LinearSystem totalMatrix;
+	private boolean isSolved;
+	
+	//constructor
+	public DoubleRefinement(Snitch output, LinearSystem totalMatrix) {
+		this.output = output;
+		this.totalMatrix = totalMatrix;
+		isSolved = false;
+	}
+	
+	/***Getter for is solved boolean.*/
+	@Override
+	public boolean isSolved() {return isSolved;}
+	
+	/***Solves a linear system (total matrix), leaving the reduced row echelon form in the system.*/
+	@Override
+	public void solve(){
+		Fraction[][] solution = null;
+		if(totalMatrix.getHeight() == totalMatrix.getCoefficientWidth()) solution = refine(FractionMatrix.clearDenominators(totalMatrix));
+		
+		if(solution == null) {
+			GaussElemination gauss = new GaussElemination(output, totalMatrix);
+			gauss.solve();
+			isSolved = gauss.isSolved();
+			return;
+		}
+		
+		int n = totalMatrix.getCoefficientWidth();
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < totalMatrix.getWidth(); c++) {
+				totalMatrix.setElement(r, c, c < n ? new Fraction(r == c ? 1 : 0) : solution[r][c - n]);
+			}
+		}
+		output.printSystem(totalMatrix);
+		isSolved = true;
+	}
+	
+	/***Returns the verified solution of the integer system (one column per equality), or null if the refinement does not converge to it.*/
+	private Fraction[][] refine(BigInteger[][] integerMatrix) {
+		int n = integerMatrix.length, equalityWidth = integerMatrix[0].length - n;
+		
+		DoubleLU lu = DoubleLU.factorize(integerMatrix);
+		if(lu == null) return null;
+		
+		//by cramer's rule every denominator is bounded by the hadamard bound, which continued fractions recover from 2 * log2(bound) + 1 bits
+		int maxBits = DixonLifting.hadamardSquared(integerMatrix).bitLength() + 2 + SAFETY_BITS;
+		
+		Fraction[][] solution = new Fraction[n][equalityWidth];
+		for (int c = 0; c < equalityWidth; c++) {
+			Fraction[] column = refine(integerMatrix, lu, c, maxBits);
+			if(column == null) return null;
+			for (int r = 0; r < n; r++) solution[r][c] = column[r];
+		}
+		
+		//a singular system can have a verified solution, which is then not the only one
+		if(!DixonLifting.verify(integerMatrix, solution) || isSingular(integerMatrix)) return null;
+		return solution;
+	}
+	
+	/***Returns true if the coefficients are singular modulo a prime, which they are if they are singular.*/
+	private static boolean isSingular(BigInteger[][] integerMatrix) {
+		int n = integerMatrix.length;
+		return DixonLifting.coefficients(integerMatrix, new PrimeField(PrimeField.prime(0))).reduceRowEchelon(n, new int[n]) < n;
+	}
+	
+	/***Returns the solution for one equality column, or null if the refinement stops converging before it is recovered.
+	 * The invariant is coefficients * accumulated / 2^shift = equality - residual / 2^shift.*/
+	private Fraction[] refine(BigInteger[][] integerMatrix, DoubleLU lu, int column, int maxBits) {
+		int n = integerMatrix.length;
+		
+		BigInteger[] residual = new BigInteger[n], accumulated = new BigInteger[n];
+		for (int r = 0; r < n; r++) {
+			residual[r] = integerMatrix[r][n + column];
+			accumulated[r] = BigInteger.ZERO;
+		}
+		
+		int shift = 0, steps = 0;
+		for (int nextCheck = 64; ; steps++) {
+			
+			//the residual is zero when the binary fractions are the exact solution
+			int residualBits = maxBitLength(residual);
+			if(residualBits == 0) {
+				output.printRefinementSteps(steps, shift);
+				return toFractions(accumulated, shift);
+			}
+			
+			//solving for the residual in doubles, scaled by 2^-exponent
+			int exponent = Math.max(0, residualBits - 62);
+			double[] x = new double[n];
+			for (int r = 0; r < n; r++) x[r] = residual[r].shiftRight(exponent).doubleValue();
+			lu.solve(x);
+			
+			double max = 0;
+			for (double value : x) max = Math.max(max, Math.abs(value));
+			if(!Double.isFinite(max)) return null;
+			
+			//the error of accumulated / 2^shift is about |x| * 2^(exponent - shift), trying to recover the solution at every doubling of the precision
+			int errorBits = Math.getExponent(max) + 1 + exponent;
+			int precision = shift - errorBits - SAFETY_BITS;
+			if(precision >= nextCheck || precision >= maxBits) {
+				output.printRefinementSteps(steps, precision);
+				Fraction[] solution = reconstruct(accumulated, shift, precision);
+				if(solution != null && DixonLifting.verify(integerMatrix, toColumn(solution))) return solution;
+				if(precision >= maxBits) return null;
+				while(nextCheck <= precision) nextCheck *= 2;
+			}
+			
+			//correction = round(x * 2^(exponent + k)), such that the largest correction has about CORRECTION_BITS bits
+			int k = Math.max(0, CORRECTION_BITS - errorBits);
+			BigInteger[] correction = new BigInteger[n];
+			for (int r = 0; r < n; r++) correction[r] = round(x[r], exponent + k);
+			
+			//residual = 2^k * residual - coefficients * correction, accumulated = 2^k * accumulated + correction
+			for (int r = 0; r < n; r++) {
+				BigInteger sum = residual[r].shiftLeft(k);
+				for (int l = 0; l < n; l++) {
+					if(integerMatrix[r][l].signum() == 0 || correction[l].signum() == 0) continue;
+					sum = sum.subtract(integerMatrix[r][l].multiply(correction[l]));
+				}
+				residual[r] = sum;
+				accumulated[r] = accumulated[r].shiftLeft(k).add(correction[r]);
+			}
+			shift += k;
+			
+			//a step that gains too little means the doubles are too inaccurate for the coefficients
+			if(maxBitLength(residual) > residualBits + k - MIN_GAIN_BITS) return null;
+		}
+	}
+	
+	/***Returns the nearest integer to value * 2^shift.*/
+	private static BigInteger round(double value, int shift) {
+		double scaled = Math.scalb(value, shift);
+		if(Math.abs(scaled) < 0x1p62) return BigInteger.valueOf(Math.round(scaled));
+		
+		//value = mantissa * 2^(exponent - 52), where the mantissa is an integer
+		int exponent = Math.getExponent(value);
+		long mantissa = (long) Math.scalb(value, 52 - exponent);
+		return BigInteger.valueOf(mantissa).shiftLeft(shift + exponent - 52);
+	}
+	
+	/***Returns the fractions numerators / 2^shift.*/
+	private static Fraction[] toFractions(BigInteger[] numerators, int shift) {
+		Fraction[] fractions = new Fraction[numerators.length];
+		BigInteger denominator = BigInteger.ONE.shiftLeft(shift);
+		for (int r = 0; r < numerators.length; r++) fractions[r] = Fraction.simplify(numerators[r], denominator);
+		return fractions;
+	}
+	
+	/***Returns the fractions with small denominators that lie within 2^-precision of approximations / 2^shift, or null if there are none.
+	 * The denominator found so far is tried first, such that the common case costs a single rounding per element.*/
+	private static Fraction[] reconstruct(BigInteger[] approximations, int shift, int precision) {
+		Fraction[] fractions = new Fraction[approximations.length];
+		BigInteger denominator = BigInteger.ONE, half = BigInteger.ONE.shiftLeft(shift - 1);
+		
+		for (int r = 0; r < approximations.length; r++) {
+			
+			//the element times the denominator is an integer, if it is within the error of the approximation
+			BigInteger scaled = approximations[r].multiply(denominator);
+			BigInteger numerator = scaled.add(half).shiftRight(shift);
+			BigInteger distance = scaled.subtract(numerator.shiftLeft(shift)).abs();
+			int bits = precision - denominator.bitLength();
+			
+			if(bits > 0 && distance.bitLength() > shift - bits) {
+				
+				//otherwise the remaining denominator is recovered from the continued fraction of scaled / 2^shift
+				BigInteger[] convergent = convergent(scaled, BigInteger.ONE.shiftLeft(shift), BigInteger.ONE.shiftLeft(bits / 2 - 1));
+				if(convergent == null) return null;
+				numerator = convergent[0];
+				denominator = denominator.multiply(convergent[1]);
+			}else if(bits <= 0) {
+				return null;
+			}
+			
+			fractions[r] = Fraction.simplify(numerator, denominator);
+		}
+		return fractions;
+	}
+	
+	/***Returns the last convergent {p, q} of the continued fraction of a / b with 0 < q <= bound, or null if even the first exceeds the bound.*/
+	private static BigInteger[] convergent(BigInteger a, BigInteger b, BigInteger bound) {
+		BigInteger p0 = BigInteger.ZERO, q0 = BigInteger.ONE, p1 = BigInteger.ONE, q1 = BigInteger.ZERO;
+		
+		while(b.signum() != 0) {
+			BigInteger[] quotient = floorDivide(a, b);
+			BigInteger p2 = quotient[0].multiply(p1).add(p0), q2 = quotient[0].multiply(q1).add(q0);
+			if(q2.compareTo(bound) > 0) break;
+			
+			p0 = p1; q0 = q1;
+			p1 = p2; q1 = q2;
+			a = b;
+			b = quotient[1];
+		}
+		
+		if(q1.signum() == 0) return null;
+		return new BigInteger[] {p1, q1};
+	}
+	
+	/***Returns the floored quotient and the (non-negative) remainder of a / b, for a positive b.*/
+	private static BigInteger[] floorDivide(BigInteger a, BigInteger b) {
+		BigInteger[] division = a.divideAndRemainder(b);
+		if(division[1].signum() < 0) {
+			division[0] = division[0].subtract(BigInteger.ONE);
+			division[1] = division[1].add(b);
+		}
+		return division;
+	}
+	
+	/***Returns the fractions as a single column.*/
+	private static Fraction[][] toColumn(Fraction[] fractions) {
+		Fraction[][] column = new Fraction[fractions.length][1];
+		for (int r = 0; r < fractions.length; r++) column[r][0] = fractions[r];
+		return column;
+	}
+	
+	/***Returns the largest bit length of the values.*/
+	private static int maxBitLength(BigInteger[] values) {
+		int bits = 0;
+		for (BigInteger value : values) bits = Math.max(bits, value.bitLength());
+		return bits;
+	}
+	
+	/***An LU factorization of the coefficients in doubles, with partial pivoting.*/
+	private static class DoubleLU {
+		private final double[][] factors;
+		private final int[] permutation;
+		
+		private DoubleLU(double[][] factors, int[] permutation) {
+			this.factors = factors;
+			this.permutation = permutation;
+		}
+		
+		/***Returns the factorization of the coefficients of the integer system, or null if they are singular or do not fit in doubles.*/
+		private static DoubleLU factorize(BigInteger[][] integerMatrix) {
+			int n = integerMatrix.length;
+			double[][] a = new double[n][n];
+			int[] permutation = new int[n];
+			for (int r = 0; r < n; r++) {
+				permutation[r] = r;
+				for (int c = 0; c < n; c++) {
+					a[r][c] = integerMatrix[r][c].doubleValue();
+					if(!Double.isFinite(a[r][c])) return null;
+				}
+			}
+			
+			for (int k = 0; k < n; k++) {
+				
+				//the largest pivot
+				int p = k;
+				for (int r = k + 1; r < n; r++) {
+					if(Math.abs(a[r][k]) > Math.abs(a[p][k])) p = r;
+				}
+				if(a[p][k] == 0) return null;
+				
+				double[] t = a[p]; a[p] = a[k]; a[k] = t;
+				int i = permutation[p]; permutation[p] = permutation[k]; permutation[k] = i;
+				
+				for (int r = k + 1; r < n; r++) {
+					double l = a[r][k] / a[k][k];
+					a[r][k] = l;
+					if(l == 0) continue;
+					for (int c = k + 1; c < n; c++) a[r][c] -= l * a[k][c];
+				}
+			}
+			return new DoubleLU(a, permutation);
+		}
+		
+		/***Overwrites b with the solution of Ax = b.*/
+		private void solve(double[] b) {
+			int n = b.length;
+			double[] y = new double[n];
+			for (int r = 0; r < n; r++) {
+				double sum = b[permutation[r]];
+				for (int c = 0; c < r; c++) sum -= factors[r][c] * y[c];
+				y[r] = sum;
+			}
+			for (int r = n - 1; r >= 0; r--) {
+				double sum = y[r];
+				for (int c = r + 1; c < n; c++) sum -= factors[r][c] * b[c];
+				b[r] = sum / factors[r][r];
+			}
+		}
+	}
+}
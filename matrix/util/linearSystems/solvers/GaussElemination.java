@@ -1,35 +1,66 @@
 package matrix.util.linearSystems.solvers;
 
 import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import matrix.util.*;
 import matrix.util.inputOutput.Snitch;
 import matrix.util.linearSystems.LinearSystem;
+import matrix.util.linearSystems.solvers.SolverMetrics.Phase;
 
-public class GaussElemination {
+public class GaussElemination implements Solver {
+	
+	//the number of elements below which row additions are done sequentially
+	private static final int PARALLEL_THRESHOLD = 1 << 12;
 	
 	//fields
 	private Snitch output;
 	private LinearSystem totalMatrix;
 	private boolean isSolved;
+	private ForkJoinPool pool;
+	private SolverMetrics metrics;
 	
 	//constructor
 	public GaussElemination(Snitch output, LinearSystem totalMatrix) {
+		this(output, totalMatrix, null);
+	}
+	
+	/***Row additions for a pivot are spread across the pool, unless it is null.*/
+	public GaussElemination(Snitch output, LinearSystem totalMatrix, ForkJoinPool pool) {
+		this(output, totalMatrix, pool, SolverMetrics.DISABLED);
+	}
+	
+	/***Row additions for a pivot are spread across the pool, unless it is null. The phases, row operations and coefficient growth are measured by the metrics.*/
+	public GaussElemination(Snitch output, LinearSystem totalMatrix, ForkJoinPool pool, SolverMetrics metrics) {
 		this.output = output;
 		this.totalMatrix = totalMatrix;
+		this.pool = pool;
+		this.metrics = metrics;
 		isSolved = false;
 	}
 	
 	/***Getter for is solved boolean.*/
+	@Override
 	public boolean isSolved() {return isSolved;}
 	
 	/***Solves a linear system (total matrix). Returns true if the system was solved, otherwise false.*/
+	@Override
 	public void solve(){
+		long start = metrics.start();
 		computeEchelon(totalMatrix);
-		if(isInconsitent(totalMatrix)) return;
+		start = metrics.end(Phase.ECHELON, start);
+		
+		boolean isInconsistent = isInconsitent(totalMatrix);
+		start = metrics.end(Phase.INCONSISTENCY_CHECK, start);
+		if(isInconsistent) return;
+		
 		computeReduced(totalMatrix);
+		start = metrics.end(Phase.REDUCE, start);
 		scalePivots(totalMatrix);
+		start = metrics.end(Phase.SCALE, start);
 		buryZeroRows(totalMatrix);
+		metrics.end(Phase.BURY, start);
 		isSolved = true;
 	}
 	
@@ -51,6 +82,12 @@ public class GaussElemination {
 	
 	/***Adds zeroes beneath or above the specified element.*/
 	private void computeColumn(LinearSystem totalMatrix, int r1, int c, int direction){
+		int rowCount = direction > 0 ? totalMatrix.getHeight() - r1 - 1 : r1;
+		if(pool != null && (long) rowCount * totalMatrix.getWidth() >= PARALLEL_THRESHOLD) {
+			computeColumnParallel(totalMatrix, r1, c, direction, rowCount);
+			return;
+		}
+		
 		boolean computedElements = false;
 		for (int r2 = r1 + direction; r2 >= 0 && r2 < totalMatrix.getHeight(); r2 += direction) {
 			Fraction scalar = totalMatrix.getScalar(r1, c, r2, c);
@@ -58,11 +95,28 @@ public class GaussElemination {
 			if(scalar.numerator().equals(BigInteger.ZERO)) continue;
 			
 			LinearSystem.addRows(totalMatrix, r1, r2, scalar);
+			metrics.countRowAddition(totalMatrix, r1, r2);
 			output.printRowAddition(r1, r2, scalar);
 			computedElements = true;
 		}
 		if(computedElements) output.printSystem(totalMatrix);
 	}
+	
+	/***Adds zeroes beneath or above the specified element, updating the rows in parallel. 
+	 * Each target row is only written by one task, and the additions are printed afterwards in the sequential order.*/
+	private void computeColumnParallel(LinearSystem totalMatrix, int r1, int c, int direction, int rowCount){
+		Fraction[] scalars = new Fraction[rowCount];
+		pool.invoke(new RowAdditions(totalMatrix, r1, c, direction, scalars, 0, rowCount));
+		
+		boolean computedElements = false;
+		for (int i = 0; i < rowCount; i++) {
+			if(scalars[i] == null) continue;
+			metrics.countRowAddition(totalMatrix, r1, r1 + direction * (i + 1));
+			output.printRowAddition(r1, r1 + direction * (i + 1), scalars[i]);
+			computedElements = true;
+		}
+		if(computedElements) output.printSystem(totalMatrix);
+	}
 
 	/***Loops down through the column to find any non-zero element to swap with. Returns true if the given element has been fixed, otherwise false.*/
 	private boolean fixZeroPivot(LinearSystem totalMatrix, int pivot) {
@@ -70,6 +124,7 @@ public class GaussElemination {
 			if(totalMatrix.isZero(r, pivot) || r == pivot)  continue;
 
 			LinearSystem.swapRows(totalMatrix, r, pivot);
+			metrics.countRowSwap();
 			output.printRowSwap(r, pivot);
 			output.printSystem(totalMatrix);
 			return true;
@@ -102,6 +157,7 @@ public class GaussElemination {
 			if(scalar.numerator().equals(BigInteger.ZERO)) continue;
 			
 			LinearSystem.scaleRow(totalMatrix, pivot, scalar);
+			metrics.countRowScale(totalMatrix, pivot);
 			output.printRowScale(pivot, scalar);
 			computedElements = true;
 		}
@@ -123,4 +179,44 @@ public class GaussElemination {
 		
 	}
 	
+	/***Adds the pivot row to the target rows [from, to) (counted from the pivot in the direction), splitting the range until it is below the threshold. 
+	 * The scalar of every addition is stored, or null if the row was already zero.*/
+	@SuppressWarnings("serial")
+	private static class RowAdditions extends RecursiveAction {
+		
+		private final LinearSystem totalMatrix;
+		private final int r1, c, direction, from, to;
+		private final Fraction[] scalars;
+		
+		private RowAdditions(LinearSystem totalMatrix, int r1, int c, int direction, Fraction[] scalars, int from, int to) {
+			this.totalMatrix = totalMatrix;
+			this.r1 = r1;
+			this.c = c;
+			this.direction = direction;
+			this.scalars = scalars;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to - from > 1 && (long) (to - from) * totalMatrix.getWidth() >= PARALLEL_THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new RowAdditions(totalMatrix, r1, c, direction, scalars, from, middle), 
+						new RowAdditions(totalMatrix, r1, c, direction, scalars, middle, to));
+				return;
+			}
+			
+			for (int i = from; i < to; i++) {
+				int r2 = r1 + direction * (i + 1);
+				Fraction scalar = totalMatrix.getScalar(r1, c, r2, c);
+				
+				if(scalar.numerator().equals(BigInteger.ZERO)) continue;
+				
+				LinearSystem.addRows(totalMatrix, r1, r2, scalar);
+				scalars[i] = scalar;
+			}
+		}
+	}
+	
 }
@@ -0,0 +1,349 @@
+package matrix.util.linearSystems.solvers;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.linearSystems.solvers.SystemSolver.Method;
+
+/***A linear system that stays solved while its rows change, without eliminating it again after every change.
+ * While the solution is unique, n independent rows (the basis) are kept multiplied to integers, together with their adjugate and determinant,
+ * and every other row is only checked against the solution. Replacing a row, changing an element or adding u * v^T to the coefficients
+ * then updates the adjugate by the Sherman-Morrison formula in O(n^2) integer operations, every division of which is exact, and appending a row costs a check.
+ * Only when a change makes the basis singular, or while the solution is not unique, is the whole system solved again using the given method.*/
+public class IncrementalSolver {
+	
+	//the system as it is before solving, and the method of the full solves
+	private LinearSystem system;
+	private final Method method;
+	
+	//the basis rows, and the position of every row in the basis (-1 if it is not in it)
+	private int[] basis;
+	private int[] positions;
+	
+	//B, the basis rows with their equality elements multiplied by the scales, and the adjugate and determinant of its coefficients
+	private BigInteger[][] integerRows;
+	private BigInteger[] scales;
+	private BigInteger[][] adjugate;
+	private BigInteger determinant;
+	
+	//the solution times the determinant, adj(B) * E
+	private BigInteger[][] numerators;
+	
+	//the rows outside the basis that the solution does not satisfy
+	private boolean[] isInconsistent;
+	private int inconsistentCount;
+	
+	//the reduced row echelon form, kept when the solution is not unique and otherwise built when asked for
+	private LinearSystem reduced;
+	private boolean isSolved;
+	private int fullSolveCount;
+	
+	//constructors
+	public IncrementalSolver(LinearSystem system) {this(system, Method.GAUSS);}
+	
+	/***Solves a copy of the system using the given method, which is also used whenever it must be solved again.*/
+	public IncrementalSolver(LinearSystem system, Method method) {
+		this.system = system.clone();
+		this.method = method;
+		solveFully();
+	}
+	
+	//variables
+	/***Returns true if the system is consistent, false if an inconsistency was found.*/
+	public boolean isSolved() {return isSolved;}
+	
+	/***Returns true if the coefficients have full column rank, such that a consistent system has a single solution (see Determinant for the rank).*/
+	public boolean isUnique() {return basis != null;}
+	
+	/***Returns the number of times the whole system was solved, including the first.*/
+	public int getFullSolveCount() {return fullSolveCount;}
+	
+	/***Returns a copy of the system before solving, with every change applied.*/
+	public LinearSystem getSystem() {return system.clone();}
+	
+	/***Returns the solution, a column per equality column, if the system is solved and the solution is unique.*/
+	public FractionMatrix getSolution() {
+		if(!isSolved || basis == null) throw new IllegalStateException("The system has no unique solution");
+		
+		Fraction[][] solution = new Fraction[numerators.length][numerators[0].length];
+		for (int r = 0; r < solution.length; r++) {
+			for (int c = 0; c < solution[r].length; c++) solution[r][c] = Fraction.simplify(numerators[r][c], determinant);
+		}
+		return new FractionMatrix(solution);
+	}
+	
+	/***Returns a copy of the reduced row echelon form of the system.*/
+	public LinearSystem getReduced() {
+		if(reduced != null) return reduced.clone();
+		
+		//an inconsistent system is eliminated to find its contradiction
+		if(!isSolved) {
+			reduced = system.clone();
+			SystemSolver.solve(reduced, true, method);
+			return reduced.clone();
+		}
+		
+		//[I | X] above zero rows
+		int n = system.getCoefficientWidth();
+		FractionMatrix solution = getSolution();
+		Fraction[][] elements = new Fraction[system.getHeight()][system.getWidth()];
+		for (int r = 0; r < elements.length; r++) {
+			for (int c = 0; c < elements[r].length; c++) {
+				if(c < n) elements[r][c] = new Fraction(r == c ? 1 : 0);
+				else elements[r][c] = r < n ? solution.getElement(r, c - n) : new Fraction(0);
+			}
+		}
+		reduced = new LinearSystem(new FractionMatrix(elements), n);
+		return reduced.clone();
+	}
+	
+	// UPDATES -------------------------------------------------------------------------------------------------------
+	
+	/***Sets a coefficient or an equality element of row r. Returns true if the changed system is solved.*/
+	public boolean setElement(int r, int c, Fraction f) {
+		Fraction[] row = getRow(r);
+		row[c] = f;
+		return replaceRow(r, row);
+	}
+	
+	/***Replaces row r, given with its equality elements. Returns true if the changed system is solved.*/
+	public boolean replaceRow(int r, Fraction[] row) {
+		requireLength(row, system.getWidth());
+		for (int c = 0; c < row.length; c++) system.setElement(r, c, row[c]);
+		reduced = null;
+		
+		if(basis == null) return solveFully();
+		if(positions[r] < 0) return checkRow(r);
+		
+		//B' = B + e_j * (row' - row)^T, so adj(B) * e_j is column j of the adjugate
+		int j = positions[r], n = adjugate.length;
+		BigInteger scale = FractionMatrix.rowDenominator(system, r);
+		BigInteger[] integerRow = FractionMatrix.integerRow(system, r, scale);
+		BigInteger[] difference = new BigInteger[integerRow.length], t = new BigInteger[n];
+		for (int c = 0; c < integerRow.length; c++) difference[c] = integerRow[c].subtract(integerRows[j][c]);
+		for (int i = 0; i < n; i++) t[i] = adjugate[i][j];
+		
+		if(!shermanMorrison(t, difference)) return solveFully();
+		integerRows[j] = integerRow;
+		scales[j] = scale;
+		return checkRows();
+	}
+	
+	/***Adds u * v^T to the coefficients, where u has an element per row and v an element per coefficient column.
+	 * Returns true if the changed system is solved.*/
+	public boolean update(Fraction[] u, Fraction[] v) {
+		requireLength(u, system.getHeight());
+		requireLength(v, system.getCoefficientWidth());
+		int n = system.getCoefficientWidth();
+		
+		for (int r = 0; r < u.length; r++) {
+			if(u[r].signum() == 0) continue;
+			for (int c = 0; c < n; c++) {
+				if(v[c].signum() == 0) continue;
+				system.setElement(r, c, system.getElement(r, c).add(u[r].multi(v[c])));
+			}
+		}
+		reduced = null;
+		if(basis == null) return solveFully();
+		
+		//v = b / q for integers b, and row j of B changes by scale_j * u_r / q * b, which is made an integer by scaling the row
+		BigInteger q = BigInteger.ONE;
+		for (Fraction f : v) q = lcm(q, f.denominator());
+		BigInteger[] difference = new BigInteger[system.getWidth()], a = new BigInteger[n];
+		for (int c = 0; c < difference.length; c++) {
+			difference[c] = c < n ? v[c].numerator().multiply(q.divide(v[c].denominator())) : BigInteger.ZERO;
+		}
+		for (int j = 0; j < n; j++) {
+			Fraction f = u[basis[j]].multi(Fraction.simplify(scales[j], q));
+			if(!f.denominator().equals(BigInteger.ONE)) scaleRow(j, f.denominator());
+			a[j] = f.numerator();
+		}
+		
+		//t = adj(B) * a
+		BigInteger[] t = IntStream.range(0, n).parallel().mapToObj(i -> {
+			BigInteger sum = BigInteger.ZERO;
+			for (int j = 0; j < n; j++) {
+				if(a[j].signum() != 0) sum = sum.add(adjugate[i][j].multiply(a[j]));
+			}
+			return sum;
+		}).toArray(BigInteger[]::new);
+		
+		if(!shermanMorrison(t, difference)) return solveFully();
+		for (int j = 0; j < n; j++) {
+			if(a[j].signum() == 0) continue;
+			for (int c = 0; c < n; c++) integerRows[j][c] = integerRows[j][c].add(a[j].multiply(difference[c]));
+		}
+		return checkRows();
+	}
+	
+	/***Appends a row, given with its equality elements. Returns true if the changed system is solved.*/
+	public boolean appendRow(Fraction[] row) {
+		requireLength(row, system.getWidth());
+		int h = system.getHeight();
+		
+		Fraction[][] elements = new Fraction[h + 1][];
+		for (int r = 0; r < h; r++) elements[r] = getRow(r);
+		elements[h] = row.clone();
+		system = new LinearSystem(new FractionMatrix(elements), system.getCoefficientWidth());
+		reduced = null;
+		
+		if(basis == null) return solveFully();
+		positions = Arrays.copyOf(positions, h + 1);
+		positions[h] = -1;
+		isInconsistent = Arrays.copyOf(isInconsistent, h + 1);
+		return checkRow(h);
+	}
+	
+	// SOLVING -------------------------------------------------------------------------------------------------------
+	
+	/***Solves the whole system, finding a new basis and its adjugate if the coefficients have full column rank. Returns true if the system is solved.*/
+	private boolean solveFully() {
+		fullSolveCount++;
+		reduced = null;
+		int n = system.getCoefficientWidth();
+		int[] rows = system.getHeight() >= n ? Determinant.independentRows(system.getCoefficients()) : new int[0];
+		
+		if(rows.length < n) {
+			basis = positions = null;
+			integerRows = adjugate = numerators = null;
+			scales = null;
+			determinant = null;
+			isInconsistent = null;
+			reduced = system.clone();
+			isSolved = SystemSolver.solve(reduced, true, method);
+			return isSolved;
+		}
+		
+		basis = rows;
+		positions = new int[system.getHeight()];
+		Arrays.fill(positions, -1);
+		integerRows = new BigInteger[n][];
+		scales = new BigInteger[n];
+		BigInteger[][] coefficients = new BigInteger[n][];
+		for (int j = 0; j < n; j++) {
+			positions[basis[j]] = j;
+			scales[j] = FractionMatrix.rowDenominator(system, basis[j]);
+			integerRows[j] = FractionMatrix.integerRow(system, basis[j], scales[j]);
+			coefficients[j] = Arrays.copyOf(integerRows[j], n);
+		}
+		
+		determinant = Determinant.chineseRemainder(coefficients);
+		adjugate = Inversion.adjugate(coefficients, determinant);
+		
+		//adj(B) * E, a row at a time
+		int k = system.getWidth() - n;
+		numerators = IntStream.range(0, n).parallel().mapToObj(r -> {
+			BigInteger[] row = new BigInteger[k];
+			for (int c = 0; c < k; c++) {
+				BigInteger sum = BigInteger.ZERO;
+				for (int j = 0; j < n; j++) sum = sum.add(adjugate[r][j].multiply(integerRows[j][n + c]));
+				row[c] = sum;
+			}
+			return row;
+		}).toArray(BigInteger[][]::new);
+		
+		isInconsistent = new boolean[system.getHeight()];
+		inconsistentCount = 0;
+		return checkRows();
+	}
+	
+	/***Updates the adjugate, determinant and numerators to B' = B + a * difference^T, given t = adj(B) * a, where the difference has an element per column of B.
+	 * Returns false if B' is singular, leaving everything unchanged.
+	 * For d = det(B), z = difference^T * adj(B) and y = difference^T * numerators - d * (the equality of the difference),
+	 * d' = d + z * a, adj(B') = (d' * adj(B) - t * z) / d and numerators' = (d' * numerators - t * y) / d, where both divisions are exact.*/
+	private boolean shermanMorrison(BigInteger[] t, BigInteger[] difference) {
+		int n = adjugate.length, k = numerators[0].length;
+		
+		//d' = d + difference^T * t, the matrix determinant lemma
+		BigInteger sum = determinant;
+		for (int i = 0; i < n; i++) {
+			if(difference[i].signum() != 0) sum = sum.add(difference[i].multiply(t[i]));
+		}
+		if(sum.signum() == 0) return false;
+		
+		BigInteger[] z = new BigInteger[n], y = new BigInteger[k];
+		Arrays.fill(z, BigInteger.ZERO);
+		for (int c = 0; c < k; c++) y[c] = determinant.multiply(difference[n + c]).negate();
+		for (int i = 0; i < n; i++) {
+			if(difference[i].signum() == 0) continue;
+			for (int c = 0; c < n; c++) {
+				if(adjugate[i][c].signum() != 0) z[c] = z[c].add(difference[i].multiply(adjugate[i][c]));
+			}
+			for (int c = 0; c < k; c++) {
+				if(numerators[i][c].signum() != 0) y[c] = y[c].add(difference[i].multiply(numerators[i][c]));
+			}
+		}
+		
+		//each row independently
+		BigInteger previous = determinant, next = sum;
+		IntStream.range(0, n).parallel().forEach(r -> {
+			for (int c = 0; c < n; c++) adjugate[r][c] = next.multiply(adjugate[r][c]).subtract(t[r].multiply(z[c])).divide(previous);
+			for (int c = 0; c < k; c++) numerators[r][c] = next.multiply(numerators[r][c]).subtract(t[r].multiply(y[c])).divide(previous);
+		});
+		determinant = next;
+		return true;
+	}
+	
+	/***Multiplies row j of B by the given integer, which multiplies the determinant, every column but j of the adjugate, and the numerators.*/
+	private void scaleRow(int j, BigInteger scalar) {
+		int n = adjugate.length;
+		for (int c = 0; c < integerRows[j].length; c++) integerRows[j][c] = integerRows[j][c].multiply(scalar);
+		scales[j] = scales[j].multiply(scalar);
+		determinant = determinant.multiply(scalar);
+		
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++) {
+				if(c != j) adjugate[r][c] = adjugate[r][c].multiply(scalar);
+			}
+			for (int c = 0; c < numerators[r].length; c++) numerators[r][c] = numerators[r][c].multiply(scalar);
+		}
+	}
+	
+	/***Checks every row outside the basis against the solution. Returns true if the system is solved.*/
+	private boolean checkRows() {
+		for (int r = 0; r < system.getHeight(); r++) {
+			if(positions[r] < 0) checkRow(r);
+		}
+		isSolved = inconsistentCount == 0;
+		return isSolved;
+	}
+	
+	/***Checks a row outside the basis against the solution, as row * numerators = d * equality for the row multiplied to integers. Returns true if the system is solved.*/
+	private boolean checkRow(int r) {
+		int n = system.getCoefficientWidth();
+		BigInteger[] integerRow = FractionMatrix.integerRow(system, r, FractionMatrix.rowDenominator(system, r));
+		
+		boolean isSatisfied = true;
+		for (int c = 0; c < numerators[0].length && isSatisfied; c++) {
+			BigInteger sum = determinant.multiply(integerRow[n + c]).negate();
+			for (int i = 0; i < n; i++) {
+				if(integerRow[i].signum() != 0) sum = sum.add(integerRow[i].multiply(numerators[i][c]));
+			}
+			isSatisfied = sum.signum() == 0;
+		}
+		
+		if(isInconsistent[r] == isSatisfied) inconsistentCount += isSatisfied ? -1 : 1;
+		isInconsistent[r] = !isSatisfied;
+		isSolved = inconsistentCount == 0;
+		return isSolved;
+	}
+	
+	/***Returns a copy of row r of the system.*/
+	private Fraction[] getRow(int r) {
+		Fraction[] row = new Fraction[system.getWidth()];
+		for (int c = 0; c < row.length; c++) row[c] = system.getElement(r, c);
+		return row;
+	}
+	
+	/***Returns the least common multiple of two positive integers.*/
+	private static BigInteger lcm(BigInteger a, BigInteger b) {return a.divide(a.gcd(b)).multiply(b);}
+	
+	/***Throws an IllegalArgumentException if the array does not have the given length.*/
+	private static void requireLength(Fraction[] array, int length) {
+		if(array.length != length) throw new IllegalArgumentException(String.format("Expected %d elements, got %d", length, array.length));
+	}
+}
@@ -0,0 +1,141 @@
+package matrix.util.linearSystems.solvers;
+
+import java.math.BigInteger;
+import java.util.stream.IntStream;
+
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+import matrix.util.modular.ModularMatrix;
+import matrix.util.modular.PrimeField;
+import matrix.util.modular.RationalReconstruction;
+
+/***The exact inverse of a square matrix, and the division A * B^-1 of matrices.
+ * The matrix is factored once, after which the unit columns are solved independently, in parallel.
+ * Integer matrices are instead inverted modulo enough primes that the adjugate can be recovered with the chinese remainder theorem, which never grows a fraction.*/
+public class Inversion {
+	
+	/***The ways of computing an exact inverse.*/
+	public enum Method {
+		/***An LU factorization in fractions, with the n unit columns substituted in parallel.*/
+		LU,
+		/***The exact determinant and the adjugate from the inverses modulo primes, combined with the chinese remainder theorem. The primes are inverted in parallel.*/
+		MODULAR
+	}
+	
+	/***Returns the inverse of the square matrix, computed modulo primes if every element is an integer and otherwise by LU factorization.
+	 * Throws an ArithmeticException if the matrix is singular.*/
+	public static FractionMatrix inverse(FractionMatrix m) throws ArithmeticException{return inverse(m, isInteger(m) ? Method.MODULAR : Method.LU);}
+	
+	/***Returns the inverse of the square matrix, computed using the given method.
+	 * Throws an ArithmeticException if the matrix is singular.*/
+	public static FractionMatrix inverse(FractionMatrix m, Method method) throws ArithmeticException{
+		requireSquare(m);
+		if(method == Method.MODULAR) return modularInverse(m);
+		return new LUFactorization(m).inverse();
+	}
+	
+	/***Returns a * b^-1, where b is square, computed as inverse does.
+	 * Throws an ArithmeticException if b is singular.*/
+	public static FractionMatrix divide(FractionMatrix a, FractionMatrix b) throws ArithmeticException{return divide(a, b, isInteger(b) ? Method.MODULAR : Method.LU);}
+	
+	/***Returns a * b^-1, where b is square, computed using the given method.
+	 * Throws an ArithmeticException if b is singular.*/
+	public static FractionMatrix divide(FractionMatrix a, FractionMatrix b, Method method) throws ArithmeticException{
+		requireSquare(b);
+		if(a.getWidth() != b.getHeight()) throw new IllegalArgumentException(String.format("Cannot divide a %dx%d matrix by a %dx%d matrix", a.getHeight(), a.getWidth(), b.getHeight(), b.getWidth()));
+		if(method == Method.MODULAR) return FractionMatrix.multi(a, modularInverse(b));
+		
+		//X * B = A is solved as B^T * X^T = A^T, one column of X^T per row of A
+		FractionMatrix transposed = new LUFactorization(FractionMatrix.transpose(b)).solve(FractionMatrix.transpose(a));
+		return FractionMatrix.transpose(transposed);
+	}
+	
+	/***Returns the inverse from the adjugate and the determinant of the rows multiplied to integers, each found modulo primes.*/
+	private static FractionMatrix modularInverse(FractionMatrix m) {
+		int n = m.getHeight();
+		
+		//B = D * A for D = diag(d_r), so A^-1 = B^-1 * D
+		BigInteger[][] integerMatrix = new BigInteger[n][];
+		BigInteger[] rowDenominators = new BigInteger[n];
+		for (int r = 0; r < n; r++) {
+			rowDenominators[r] = FractionMatrix.rowDenominator(m, r);
+			integerMatrix[r] = FractionMatrix.integerRow(m, r, rowDenominators[r]);
+		}
+		
+		BigInteger determinant = Determinant.chineseRemainder(integerMatrix);
+		if(determinant.signum() == 0) throw new ArithmeticException("The matrix is singular");
+		BigInteger[][] adjugate = adjugate(integerMatrix, determinant);
+		
+		Fraction[][] elements = new Fraction[n][n];
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++) {
+				elements[r][c] = Fraction.simplify(adjugate[r][c].multiply(rowDenominators[c]), determinant);
+			}
+		}
+		return new FractionMatrix(elements);
+	}
+	
+	/***Returns the adjugate of the nonsingular integer matrix with the given determinant, from its inverses modulo primes that do not divide the determinant.*/
+	static BigInteger[][] adjugate(BigInteger[][] integerMatrix, BigInteger determinant) {
+		int n = integerMatrix.length;
+		
+		//every element of the adjugate is a minor, bounded like the determinant, but the primes dividing the determinant have no inverse
+		int primeCount = Determinant.primeCount(integerMatrix);
+		long[] primes = new long[primeCount];
+		for (int i = 0, j = 0; i < primeCount; j++) {
+			long p = PrimeField.prime(j);
+			if(determinant.mod(BigInteger.valueOf(p)).signum() != 0) primes[i++] = p;
+		}
+		
+		//adj(B) = det(B) * B^-1 modulo each prime
+		ModularMatrix[] adjugates = IntStream.range(0, primeCount).parallel().mapToObj(i -> {
+			PrimeField field = new PrimeField(primes[i]);
+			ModularMatrix inverse = ModularMatrix.reduce(integerMatrix, field).inverse();
+			long scalar = field.reduce(determinant);
+			for (int r = 0; r < n; r++) {
+				long[] row = inverse.getRow(r);
+				for (int c = 0; c < n; c++) row[c] = field.multi(scalar, row[c]);
+			}
+			return inverse;
+		}).toArray(ModularMatrix[]::new);
+		
+		//moduli[i] is the product of the first i primes
+		PrimeField[] fields = new PrimeField[primeCount];
+		long[] mInverses = new long[primeCount];
+		BigInteger[] moduli = new BigInteger[primeCount + 1];
+		moduli[0] = BigInteger.ONE;
+		for (int i = 0; i < primeCount; i++) {
+			fields[i] = adjugates[i].getField();
+			mInverses[i] = fields[i].inverse(fields[i].reduce(moduli[i]));
+			moduli[i + 1] = moduli[i].multiply(fields[i].bigPrime());
+		}
+		BigInteger half = moduli[primeCount].shiftRight(1);
+		
+		return IntStream.range(0, n).parallel().mapToObj(r -> {
+			BigInteger[] row = new BigInteger[n];
+			for (int c = 0; c < n; c++) {
+				BigInteger x = BigInteger.ZERO;
+				for (int i = 0; i < primeCount; i++) {
+					x = RationalReconstruction.combine(x, moduli[i], fields[i], mInverses[i], adjugates[i].getElement(r, c));
+				}
+				
+				//the adjugate is the representative in the symmetric range
+				row[c] = x.compareTo(half) > 0 ? x.subtract(moduli[primeCount]) : x;
+			}
+			return row;
+		}).toArray(BigInteger[][]::new);
+	}
+	
+	/***Returns true if every element of the matrix is an integer.*/
+	private static boolean isInteger(FractionMatrix m) {
+		for (int r = 0; r < m.getHeight(); r++) {
+			if(!FractionMatrix.rowDenominator(m, r).equals(BigInteger.ONE)) return false;
+		}
+		return true;
+	}
+	
+	/***Throws an IllegalArgumentException if the matrix is not square.*/
+	private static void requireSquare(FractionMatrix m) {
+		if(m.getHeight() != m.getWidth()) throw new IllegalArgumentException(String.format("Cannot invert a %dx%d matrix, it must be square", m.getHeight(), m.getWidth()));
+	}
+}
@@ -0,0 +1,199 @@
+package matrix.util.linearSystems.solvers;
+
+import java.util.stream.IntStream;
+
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+import matrix.util.linearSystems.LinearSystem;
+
+/***An exact factorization PA = LU of square coefficients, where P permutes the rows, L is unit lower triangular and U is upper triangular.
+ * The factorization is computed once, after which each equality is solved by forward and back substitution in O(n^2) fraction operations,
+ * instead of eliminating the whole system again.*/
+public class LUFactorization {
+	
+	//the factors, L below the diagonal (the unit diagonal is not stored) and U on and above it
+	private Fraction[][] factors;
+	
+	//row r of PA is row permutation[r] of A
+	private int[] permutation;
+	private boolean isSingular;
+	
+	//constructors
+	public LUFactorization(LinearSystem system) {this(system.getCoefficients());}
+	
+	public LUFactorization(FractionMatrix coefficients) {
+		if(coefficients.getWidth() != coefficients.getHeight()) throw new IllegalArgumentException(String.format("Cannot factorize a %dx%d matrix, the coefficients must be square", coefficients.getHeight(), coefficients.getWidth()));
+		
+		int n = coefficients.getHeight();
+		factors = new Fraction[n][n];
+		permutation = new int[n];
+		for (int r = 0; r < n; r++) {
+			permutation[r] = r;
+			for (int c = 0; c < n; c++) {
+				factors[r][c] = coefficients.getElement(r, c);
+			}
+		}
+		
+		factorize();
+	}
+	
+	/***Returns the size of the factorized coefficients.*/
+	public int getSize() {return factors.length;}
+	
+	/***Returns true if the coefficients have no inverse, in which case no equality can be solved.*/
+	public boolean isSingular() {return isSingular;}
+	
+	/***Returns a copy of the row permutation, such that row r of PA is row permutation[r] of A.*/
+	public int[] getPermutation() {return permutation.clone();}
+	
+	/***Returns the unit lower triangular factor L.*/
+	public FractionMatrix getLower() {
+		int n = getSize();
+		Fraction[][] lower = new Fraction[n][n];
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++) {
+				lower[r][c] = c < r ? factors[r][c] : new Fraction(r == c ? 1 : 0);
+			}
+		}
+		return new FractionMatrix(lower);
+	}
+	
+	/***Returns the upper triangular factor U.*/
+	public FractionMatrix getUpper() {
+		int n = getSize();
+		Fraction[][] upper = new Fraction[n][n];
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++) {
+				upper[r][c] = c >= r ? factors[r][c] : new Fraction(0);
+			}
+		}
+		return new FractionMatrix(upper);
+	}
+	
+	/***Eliminates below the diagonal, keeping the multipliers in place of the eliminated elements.
+	 * Stops at the first column without a non-zero pivot, as the coefficients are then singular.*/
+	private void factorize() {
+		int n = getSize();
+		for (int k = 0; k < n; k++) {
+			
+			//finding a non-zero pivot
+			int p = k;
+			while(p < n && isZero(factors[p][k])) p++;
+			if(p == n) {
+				isSingular = true;
+				return;
+			}
+			
+			if(p != k) {
+				Fraction[] t = factors[p];
+				factors[p] = factors[k];
+				factors[k] = t;
+				
+				int i = permutation[p];
+				permutation[p] = permutation[k];
+				permutation[k] = i;
+			}
+			
+			//row-r = row-r - l * row-k for the rows below
+			Fraction pivot = factors[k][k];
+			for (int r = k + 1; r < n; r++) {
+				if(isZero(factors[r][k])) continue;
+				
+				Fraction l = factors[r][k].div(pivot);
+				factors[r][k] = l;
+				for (int c = k + 1; c < n; c++) {
+					if(isZero(factors[k][c])) continue;
+					factors[r][c] = factors[r][c].sub(l.multi(factors[k][c]));
+				}
+			}
+		}
+	}
+	
+	/***Solves Ax = b for a single equality b, given as a column of length n.
+	 * Throws an ArithmeticException if the coefficients are singular.*/
+	public Fraction[] solve(Fraction[] equality) throws ArithmeticException{
+		if(isSingular) throw new ArithmeticException("The coefficients are singular");
+		if(equality.length != getSize()) throw new IllegalArgumentException(String.format("Expected an equality of length %d, got %d", getSize(), equality.length));
+		
+		int n = getSize();
+		Fraction[] x = new Fraction[n];
+		
+		//forward substitution, Ly = Pb
+		for (int r = 0; r < n; r++) {
+			Fraction sum = equality[permutation[r]];
+			for (int c = 0; c < r; c++) {
+				if(isZero(factors[r][c]) || isZero(x[c])) continue;
+				sum = sum.sub(factors[r][c].multi(x[c]));
+			}
+			x[r] = sum;
+		}
+		
+		//back substitution, Ux = y
+		for (int r = n - 1; r >= 0; r--) {
+			Fraction sum = x[r];
+			for (int c = r + 1; c < n; c++) {
+				if(isZero(factors[r][c]) || isZero(x[c])) continue;
+				sum = sum.sub(factors[r][c].multi(x[c]));
+			}
+			x[r] = sum.div(factors[r][r]);
+		}
+		
+		return x;
+	}
+	
+	/***Solves AX = B for every column of B, returning the solutions as the columns of X.
+	 * The columns are independent and are solved in parallel.
+	 * Throws an ArithmeticException if the coefficients are singular.*/
+	public FractionMatrix solve(FractionMatrix equalities) throws ArithmeticException{
+		if(isSingular) throw new ArithmeticException("The coefficients are singular");
+		if(equalities.getHeight() != getSize()) throw new IllegalArgumentException(String.format("Expected equalities of height %d, got %d", getSize(), equalities.getHeight()));
+		
+		int n = getSize();
+		Fraction[][] columns = new Fraction[equalities.getWidth()][n];
+		for (int c = 0; c < columns.length; c++) {
+			for (int r = 0; r < n; r++) {
+				columns[c][r] = equalities.getElement(r, c);
+			}
+		}
+		Fraction[][] solutions = IntStream.range(0, columns.length).parallel()
+				.mapToObj(i -> solve(columns[i]))
+				.toArray(Fraction[][]::new);
+		
+		Fraction[][] x = new Fraction[n][columns.length];
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < columns.length; c++) {
+				x[r][c] = solutions[c][r];
+			}
+		}
+		return new FractionMatrix(x);
+	}
+	
+	/***Returns the inverse of the coefficients, solving the n unit columns in parallel.
+	 * Throws an ArithmeticException if the coefficients are singular.*/
+	public FractionMatrix inverse() throws ArithmeticException{
+		int n = getSize();
+		Fraction[][] identity = new Fraction[n][n];
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++) {
+				identity[r][c] = new Fraction(r == c ? 1 : 0);
+			}
+		}
+		return solve(new FractionMatrix(identity));
+	}
+	
+	/***Solves the given system in place, which must have the factorized coefficients, leaving the reduced row echelon form [I | X] in the system.*/
+	public void solve(LinearSystem system) throws ArithmeticException{
+		FractionMatrix x = solve(system.getEquality());
+		
+		int n = getSize();
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < system.getWidth(); c++) {
+				system.setElement(r, c, c < n ? new Fraction(r == c ? 1 : 0) : x.getElement(r, c - n));
+			}
+		}
+	}
+	
+	/***Returns true if the fraction is zero.*/
+	private static boolean isZero(Fraction f) {return f.signum() == 0;}
+
+}
@@ -0,0 +1,256 @@
+package matrix.util.linearSystems.solvers;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import matrix.util.*;
+import matrix.util.inputOutput.Snitch;
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.modular.*;
+
+/***Multi-modular elimination. 
+ * The system is reduced modulo a number of word sized primes and each image is eliminated in parallel using primitive long arithmetic. 
+ * The images are combined with the chinese remainder theorem and the fractions are recovered by rational reconstruction. 
+ * Primes are added until a reconstruction agrees with a new image and verifies exactly against the system. 
+ * If the images show an inconsistency, the exact answer is left to BareissElemination.*/
+public class ModularElemination implements Solver {
+	
+	//the number of primes in a batch grows up to this multiple of the processor count
+	private static final int MAX_BATCH_FACTOR = 4;
+	
+	//fields
+	private Snitch output;
+	private LinearSystem totalMatrix;
+	private boolean isSolved;
+	
+	//the integer rows of the system
+	private BigInteger[][] integerMatrix;
+	
+	//the combined images; rank, pivot columns, residues of each pivot row and the product of the primes
+	private int rank;
+	private int[] pivots;
+	private BigInteger[][] residues;
+	private BigInteger modulus;
+	private int primeCount;
+	
+	//constructor
+	public ModularElemination(Snitch output, LinearSystem totalMatrix) {
+		this.output = output;
+		this.totalMatrix = totalMatrix;
+		isSolved = false;
+	}
+	
+	/***Getter for is solved boolean.*/
+	@Override
+	public boolean isSolved() {return isSolved;}
+	
+	/***Solves a linear system (total matrix), leaving the reduced row echelon form in the system.*/
+	@Override
+	public void solve(){
+		integerMatrix = FractionMatrix.clearDenominators(totalMatrix);
+		rank = -1;
+		
+		Fraction[][] candidate = null;
+		int nextPrime = 0, processors = Runtime.getRuntime().availableProcessors(), batchSize = Math.max(2, processors);
+		while(true) {
+			
+			//solving the images of a batch of primes in parallel
+			int first = nextPrime;
+			List<Image> images = IntStream.range(first, first + batchSize).parallel()
+					.mapToObj(i -> computeImage(PrimeField.prime(i)))
+					.collect(Collectors.toList());
+			nextPrime += batchSize;
+			
+			//combining the images and testing the previous candidate against the new images
+			boolean agreed = candidate != null, inconsistent = false;
+			for (Image image : images) {
+				int compared = compareProfile(image);
+				if(compared < 0) continue;
+				if(compared > 0) {
+					restart(image);
+					candidate = null;
+					agreed = false;
+					inconsistent = !image.isConsistent;
+					continue;
+				}
+				
+				if(candidate != null && !agrees(candidate, image)) {
+					candidate = null;
+					agreed = false;
+				}
+				combine(image);
+				inconsistent |= !image.isConsistent;
+			}
+			output.printModularImages(primeCount, modulus.bitLength());
+			
+			if(inconsistent) {
+				BareissElemination bareiss = new BareissElemination(output, totalMatrix);
+				bareiss.solve();
+				isSolved = bareiss.isSolved();
+				return;
+			}
+			
+			if(agreed && verify(candidate)) {
+				assign(candidate);
+				output.printSystem(totalMatrix);
+				isSolved = true;
+				return;
+			}
+			
+			candidate = reconstruct();
+			batchSize = Math.min(2 * batchSize, MAX_BATCH_FACTOR * processors);
+		}
+	}
+	
+	/***Computes the reduced row echelon form modulo the given prime.*/
+	private Image computeImage(long prime) {
+		PrimeField field = new PrimeField(prime);
+		ModularMatrix matrix = ModularMatrix.reduce(integerMatrix, field);
+		
+		int[] pivots = new int[matrix.getHeight()];
+		int rank = matrix.reduceRowEchelon(totalMatrix.getCoefficientWidth(), pivots);
+		
+		//the zero rows of coefficients must have zero equalities
+		boolean isConsistent = true;
+		for (int r = rank; r < matrix.getHeight() && isConsistent; r++) {
+			for (int c = totalMatrix.getCoefficientWidth(); c < matrix.getWidth(); c++) {
+				if(matrix.getElement(r, c) != 0) isConsistent = false;
+			}
+		}
+		
+		return new Image(matrix, rank, Arrays.copyOf(pivots, rank), isConsistent);
+	}
+	
+	/***Compares the rank profile of the image to the current one; positive if the image is better, zero if equal and negative if it is unlucky. 
+	 * The true profile has the highest rank and then the earliest pivots.*/
+	private int compareProfile(Image image) {
+		if(image.rank != rank) return image.rank - rank;
+		for (int i = 0; i < rank; i++) {
+			if(image.pivots[i] != pivots[i]) return pivots[i] - image.pivots[i];
+		}
+		return 0;
+	}
+	
+	/***Discards every previous image, starting over from the given one.*/
+	private void restart(Image image) {
+		rank = image.rank;
+		pivots = image.pivots;
+		modulus = BigInteger.ONE;
+		residues = new BigInteger[rank][totalMatrix.getWidth()];
+		for (BigInteger[] row : residues) Arrays.fill(row, BigInteger.ZERO);
+		primeCount = 0;
+		combine(image);
+	}
+	
+	/***Combines the image into the residues using the chinese remainder theorem.*/
+	private void combine(Image image) {
+		PrimeField field = image.matrix.getField();
+		long mInverse = field.inverse(field.reduce(modulus));
+		
+		for (int r = 0; r < rank; r++) {
+			long[] row = image.matrix.getRow(r);
+			for (int c = 0; c < row.length; c++) {
+				if(isPivot(c)) continue;
+				residues[r][c] = RationalReconstruction.combine(residues[r][c], modulus, field, mInverse, row[c]);
+			}
+		}
+		
+		modulus = modulus.multiply(field.bigPrime());
+		primeCount++;
+	}
+	
+	/***Returns the candidate solution from the residues, or null if some fraction cannot be reconstructed yet.*/
+	private Fraction[][] reconstruct() {
+		Fraction[][] candidate = new Fraction[rank][totalMatrix.getWidth()];
+		for (int r = 0; r < rank; r++) {
+			Fraction[] row = RationalReconstruction.reconstruct(residues[r], modulus);
+			if(row == null) return null;
+			
+			for (int c = 0; c < candidate[r].length; c++) {
+				candidate[r][c] = isPivot(c) ? new Fraction(c == pivots[r] ? 1 : 0) : row[c];
+			}
+		}
+		return candidate;
+	}
+	
+	/***Returns true if the candidate is equal to the image modulo its prime.*/
+	private boolean agrees(Fraction[][] candidate, Image image) {
+		PrimeField field = image.matrix.getField();
+		for (int r = 0; r < rank; r++) {
+			for (int c = 0; c < candidate[r].length; c++) {
+				if(isPivot(c)) continue;
+				if(RationalReconstruction.reduce(candidate[r][c], field) != image.matrix.getElement(r, c)) return false;
+			}
+		}
+		return true;
+	}
+	
+	/***Verifies that every row of the system is the combination of the candidate rows given by its pivot column elements. 
+	 * Since the rank of the candidate is at most the rank of the system, the candidate is then its reduced row echelon form. 
+	 * The check is done in integers; only non-pivot columns need to be checked.*/
+	private boolean verify(Fraction[][] candidate) {
+		
+		//the candidate as integers over a single denominator
+		BigInteger denominator = BigInteger.ONE;
+		for (Fraction[] row : candidate) {
+			for (Fraction f : row) {
+				BigInteger d = f.denominator().abs();
+				if(!d.equals(BigInteger.ONE)) denominator = denominator.divide(denominator.gcd(d)).multiply(d);
+			}
+		}
+		
+		BigInteger[][] numerators = new BigInteger[rank][];
+		for (int r = 0; r < rank; r++) {
+			numerators[r] = new BigInteger[candidate[r].length];
+			for (int c = 0; c < candidate[r].length; c++) {
+				numerators[r][c] = candidate[r][c].numerator().multiply(denominator.divide(candidate[r][c].denominator()));
+			}
+		}
+		
+		//denominator * row = sum of row[pivot] * candidate-row
+		for (BigInteger[] row : integerMatrix) {
+			for (int c = 0; c < row.length; c++) {
+				if(isPivot(c)) continue;
+				
+				BigInteger sum = BigInteger.ZERO;
+				for (int k = 0; k < rank; k++) {
+					if(row[pivots[k]].signum() == 0 || numerators[k][c].signum() == 0) continue;
+					sum = sum.add(row[pivots[k]].multiply(numerators[k][c]));
+				}
+				
+				if(!sum.equals(row[c].multiply(denominator))) return false;
+			}
+		}
+		return true;
+	}
+	
+	/***Assigns the candidate to the system, followed by zero rows.*/
+	private void assign(Fraction[][] candidate) {
+		for (int r = 0; r < totalMatrix.getHeight(); r++) {
+			for (int c = 0; c < totalMatrix.getWidth(); c++) {
+				totalMatrix.setElement(r, c, r < rank ? candidate[r][c] : new Fraction(0));
+			}
+		}
+	}
+	
+	/***Returns true if the column is a pivot column.*/
+	private boolean isPivot(int c) {return Arrays.binarySearch(pivots, c) >= 0;}
+	
+	/***The reduced row echelon form modulo a single prime.*/
+	private static class Image {
+		private final ModularMatrix matrix;
+		private final int rank;
+		private final int[] pivots;
+		private final boolean isConsistent;
+		
+		private Image(ModularMatrix matrix, int rank, int[] pivots, boolean isConsistent) {
+			this.matrix = matrix;
+			this.rank = rank;
+			this.pivots = pivots;
+			this.isConsistent = isConsistent;
+		}
+	}
+}
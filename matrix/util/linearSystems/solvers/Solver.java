@@ -0,0 +1,11 @@
+package matrix.util.linearSystems.solvers;
+
+public interface Solver {
+
+	/***Solves the linear system (total matrix) in place.*/
+	void solve();
+	
+	/***Getter for is solved boolean.*/
+	boolean isSolved();
+	
+}
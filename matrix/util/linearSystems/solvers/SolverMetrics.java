@@ -0,0 +1,228 @@
+package matrix.util.linearSystems.solvers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import matrix.util.Fraction;
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.linearSystems.solvers.SystemSolver.Method;
+
+/***Measurements of a solve: the time of each phase of GaussElemination, the number of row operations and element operations, and the largest numerator and denominator reached.
+ * A disabled instance ignores everything, such that a solve that is not measured pays a branch per call.
+ * Measured solves are reported as a matrix.Solve event, with a matrix.SolverPhase event per phase, while a flight recording has them enabled.
+ * Solves without metrics are only measured for the flight recorder after opting in, with setRecording or the system property matrix.recordSolves.*/
+public class SolverMetrics {
+	
+	/***The phases of GaussElemination, in the order they run.*/
+	public enum Phase {ECHELON, INCONSISTENCY_CHECK, REDUCE, SCALE, BURY}
+	
+	/***Ignores everything.*/
+	public static final SolverMetrics DISABLED = new SolverMetrics(false);
+	
+	//the flight recorder types of the events
+	private static final EventType SOLVE_EVENT = EventType.getEventType(SolveEvent.class);
+	private static final EventType PHASE_EVENT = EventType.getEventType(PhaseEvent.class);
+	
+	//whether solves without metrics are measured while the solve event is enabled
+	private static volatile boolean isRecordingEnabled = Boolean.getBoolean("matrix.recordSolves");
+	
+	//fields
+	private final boolean isEnabled;
+	private final long[] phaseTimes;
+	private long totalTime;
+	private long rowAdditions, rowScales, rowSwaps, rowMoves, elementOperations;
+	private int maxNumeratorBits, maxDenominatorBits;
+	private StructuredSolver.Structure structure;
+	
+	//constructors
+	public SolverMetrics() {this(true);}
+	
+	private SolverMetrics(boolean isEnabled) {
+		this.isEnabled = isEnabled;
+		phaseTimes = new long[Phase.values().length];
+	}
+	
+	/***Sets whether every solve of SystemSolver is measured and reported while a flight recording has the solve event enabled, not only the solves given metrics.*/
+	public static void setRecording(boolean isRecordingEnabled) {SolverMetrics.isRecordingEnabled = isRecordingEnabled;}
+	
+	/***Returns true if recording is enabled and a flight recording has the solve event enabled.*/
+	static boolean isRecording() {return isRecordingEnabled && SOLVE_EVENT.isEnabled();}
+	
+	//variables
+	public boolean isEnabled() {return isEnabled;}
+	
+	/***Returns the nanoseconds spent in the given phase, which is zero for the phases of solvers other than GaussElemination.*/
+	public long getTime(Phase phase) {return phaseTimes[phase.ordinal()];}
+	
+	/***Returns the nanoseconds of the whole solve, excluding the printing of a snitch.*/
+	public long getTotalTime() {return totalTime;}
+	
+	public long getRowAdditions() {return rowAdditions;}
+	public long getRowScales() {return rowScales;}
+	public long getRowSwaps() {return rowSwaps;}
+	public long getRowMoves() {return rowMoves;}
+	
+	/***Returns the number of element operations of the row operations, counting a multiplication and an addition per non-zero element of an added row, a multiplication per non-zero element of a scaled row, and the two operations finding each scalar.*/
+	public long getElementOperations() {return elementOperations;}
+	
+	/***Returns the largest bit-length of a numerator, as far as it was measured (in every row written by GaussElemination, otherwise at the end).*/
+	public int getMaxNumeratorBits() {return maxNumeratorBits;}
+	
+	/***Returns the largest bit-length of a denominator, as far as it was measured (in every row written by GaussElemination, otherwise at the end).*/
+	public int getMaxDenominatorBits() {return maxDenominatorBits;}
+	
+	/***Returns the structure of the coefficients found by StructuredSolver, or null if the method did not classify them.*/
+	public StructuredSolver.Structure getStructure() {return structure;}
+	
+	/***Returns the current time if enabled, the start of a phase.*/
+	long start() {return isEnabled ? System.nanoTime() : 0;}
+	
+	/***Ends the given phase, which started at the given time. Returns the current time, the start of the next phase.*/
+	long end(Phase phase, long start) {
+		if(!isEnabled) return 0;
+		long now = System.nanoTime();
+		phaseTimes[phase.ordinal()] += now - start;
+		
+		if(PHASE_EVENT.isEnabled()) {
+			PhaseEvent event = new PhaseEvent();
+			event.phase = phase.name();
+			event.time = now - start;
+			event.commit();
+		}
+		return now;
+	}
+	
+	/***Counts row-r2 = row-r2 + scalar * row-r1 of the given system, measuring the bit-lengths of the written row.*/
+	void countRowAddition(LinearSystem system, int r1, int r2) {
+		if(!isEnabled) return;
+		rowAdditions++;
+		elementOperations += 2 + 2 * countNonZero(system, r1);
+		measureBits(system, r2);
+	}
+	
+	/***Counts row-r = scalar * row-r of the given system, measuring the bit-lengths of the written row.*/
+	void countRowScale(LinearSystem system, int r) {
+		if(!isEnabled) return;
+		rowScales++;
+		elementOperations += 1 + countNonZero(system, r);
+		measureBits(system, r);
+	}
+	
+	/***Counts a row addition of a row with the given number of non-zero elements, which was not applied to a system.*/
+	void countRowAddition(int nonZeroCount) {
+		if(!isEnabled) return;
+		rowAdditions++;
+		elementOperations += 2 + 2 * nonZeroCount;
+	}
+	
+	/***Counts a row scale of a row with the given number of non-zero elements, which was not applied to a system.*/
+	void countRowScale(int nonZeroCount) {
+		if(!isEnabled) return;
+		rowScales++;
+		elementOperations += 1 + nonZeroCount;
+	}
+	
+	/***Counts a swap of two rows.*/
+	void countRowSwap() {if(isEnabled) rowSwaps++;}
+	
+	/***Counts a move of a row.*/
+	void countRowMove() {if(isEnabled) rowMoves++;}
+	
+	/***Adds the phase times, the counts and the bit-lengths of the given metrics, which measured a part of the solve (such as a block).*/
+	void add(SolverMetrics metrics) {
+		if(!isEnabled || !metrics.isEnabled) return;
+		for (int i = 0; i < phaseTimes.length; i++) phaseTimes[i] += metrics.phaseTimes[i];
+		rowAdditions += metrics.rowAdditions;
+		rowScales += metrics.rowScales;
+		rowSwaps += metrics.rowSwaps;
+		rowMoves += metrics.rowMoves;
+		elementOperations += metrics.elementOperations;
+		maxNumeratorBits = Math.max(maxNumeratorBits, metrics.maxNumeratorBits);
+		maxDenominatorBits = Math.max(maxDenominatorBits, metrics.maxDenominatorBits);
+	}
+	
+	/***Records the structure of the coefficients, which decided the path of the solve.*/
+	void recordStructure(StructuredSolver.Structure structure) {if(isEnabled) this.structure = structure;}
+	
+	/***Returns the number of non-zero elements of row r.*/
+	private static int countNonZero(LinearSystem system, int r) {
+		int count = 0;
+		for (int c = 0; c < system.getWidth(); c++) {
+			if(!system.isZero(r, c)) count++;
+		}
+		return count;
+	}
+	
+	/***Measures the bit-lengths of every element of the given system.*/
+	void measureBits(LinearSystem system) {
+		if(!isEnabled) return;
+		for (int r = 0; r < system.getHeight(); r++) measureBits(system, r);
+	}
+	
+	/***Measures the bit-lengths of the elements of row r.*/
+	private void measureBits(LinearSystem system, int r) {
+		for (int c = 0; c < system.getWidth(); c++) {
+			if(system.isZero(r, c)) continue;
+			Fraction f = system.getElement(r, c);
+			maxNumeratorBits = Math.max(maxNumeratorBits, f.numerator().bitLength());
+			maxDenominatorBits = Math.max(maxDenominatorBits, f.denominator().bitLength());
+		}
+	}
+	
+	/***Ends the solve of the given system, which started at the given time, and reports it to the flight recorder.*/
+	void finish(Method method, LinearSystem system, boolean isSolved, long start) {
+		if(!isEnabled) return;
+		totalTime = System.nanoTime() - start;
+		measureBits(system);
+		
+		if(SOLVE_EVENT.isEnabled()) {
+			SolveEvent event = new SolveEvent();
+			event.method = method.name();
+			event.height = system.getHeight();
+			event.width = system.getWidth();
+			event.isSolved = isSolved;
+			event.structure = structure == null ? null : structure.name();
+			event.time = totalTime;
+			event.rowAdditions = rowAdditions;
+			event.rowScales = rowScales;
+			event.rowSwaps = rowSwaps;
+			event.rowMoves = rowMoves;
+			event.elementOperations = elementOperations;
+			event.maxNumeratorBits = maxNumeratorBits;
+			event.maxDenominatorBits = maxDenominatorBits;
+			event.commit();
+		}
+	}
+	
+	/***A finished solve.*/
+	@Name("matrix.Solve")
+	@Label("Solve")
+	@Category("Linear System Solver")
+	static class SolveEvent extends Event {
+		@Label("Method") String method;
+		@Label("Height") int height;
+		@Label("Width") int width;
+		@Label("Solved") boolean isSolved;
+		@Label("Structure") String structure;
+		@Label("Time") @Timespan long time;
+		@Label("Row Additions") long rowAdditions;
+		@Label("Row Scales") long rowScales;
+		@Label("Row Swaps") long rowSwaps;
+		@Label("Row Moves") long rowMoves;
+		@Label("Element Operations") long elementOperations;
+		@Label("Max Numerator Bits") int maxNumeratorBits;
+		@Label("Max Denominator Bits") int maxDenominatorBits;
+	}
+	
+	/***A finished phase of GaussElemination.*/
+	@Name("matrix.SolverPhase")
+	@Label("Solver Phase")
+	@Category("Linear System Solver")
+	static class PhaseEvent extends Event {
+		@Label("Phase") String phase;
+		@Label("Time") @Timespan long time;
+	}
+}
@@ -0,0 +1,265 @@
+package matrix.util.linearSystems.solvers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.TreeSet;
+
+import matrix.util.Fraction;
+import matrix.util.inputOutput.Snitch;
+import matrix.util.linearSystems.LinearSystem;
+import matrix.util.linearSystems.SparseLinearSystem;
+
+/***Gauss-Jordan elimination on a sparse linear system, choosing pivots by the Markowitz criterion. 
+ * The pivot minimizing (row count - 1) * (column count - 1) among the shortest rows is used, which limits the fill-in, 
+ * and only rows with a non-zero element in the pivot column are visited. 
+ * When the coefficients are rank deficient, a second pass in column order makes the result the reduced row echelon form.*/
+public class SparseElemination implements Solver {
+	
+	//the number of shortest rows searched for the pivot with the lowest markowitz cost
+	private static final int SEARCH_ROWS = 4;
+	
+	//fields
+	private Snitch output;
+	private LinearSystem totalMatrix;
+	private SparseLinearSystem system;
+	private boolean isSolved;
+	
+	//the state of an elimination; active rows have not been used as pivot rows
+	private boolean[] isActive;
+	private int[] rowCounts, columnCounts;
+	private IntList[] columnRows;
+	private TreeSet<Integer> activeRows;
+	
+	//constructor
+	public SparseElemination(Snitch output, LinearSystem totalMatrix) {
+		this(output, new SparseLinearSystem(totalMatrix));
+		this.totalMatrix = totalMatrix;
+	}
+	
+	public SparseElemination(Snitch output, SparseLinearSystem system) {
+		this.output = output;
+		this.system = system;
+		isSolved = false;
+	}
+	
+	/***Getter for is solved boolean.*/
+	@Override
+	public boolean isSolved() {return isSolved;}
+	
+	/***Getter for the sparse system.*/
+	public SparseLinearSystem getSystem() {return system;}
+	
+	/***Solves the linear system (total matrix), leaving the reduced row echelon form in the system.*/
+	@Override
+	public void solve(){
+		int rank = eliminate(true);
+		if(rank >= 0 && rank < system.getCoefficientWidth()) rank = eliminate(false);
+		
+		if(totalMatrix != null) {
+			system.assignTo(totalMatrix);
+			if(rank >= 0) output.printSystem(totalMatrix);
+		}
+		isSolved = rank >= 0;
+	}
+	
+	/***Reduces the system, choosing pivots by the markowitz criterion or else in column order. 
+	 * The pivot rows are moved to the top in the order of their pivot columns. Returns the rank, or -1 if the system is inconsistent.*/
+	private int eliminate(boolean markowitz) {
+		initialize();
+		
+		ArrayList<int[]> pivots = new ArrayList<>();
+		int cursor = 0;
+		while(true) {
+			int[] pivot = markowitz ? findMarkowitzPivot() : findColumnPivot(cursor);
+			if(pivot == null) break;
+			
+			cursor = pivot[1];
+			computeColumn(pivot[0], pivot[1]);
+			pivots.add(pivot);
+		}
+		
+		boolean inconsistent = isInconsitent();
+		if(!inconsistent) {
+			for (int i = pivots.size() - 1; i >= 0; i--) {
+				reduceColumn(pivots.get(i)[0], pivots.get(i)[1]);
+			}
+		}
+		
+		//moving the pivot rows to the top
+		pivots.sort(Comparator.comparingInt(pivot -> pivot[1]));
+		int[] order = new int[system.getHeight()];
+		int i = 0;
+		for (int[] pivot : pivots) order[i++] = pivot[0];
+		for (int r = 0; r < system.getHeight(); r++) {
+			if(isActive[r]) order[i++] = r;
+		}
+		SparseLinearSystem.permuteRows(system, order);
+		
+		return inconsistent ? -1 : pivots.size();
+	}
+	
+	/***Counts the non-zero coefficients of every row and column.*/
+	private void initialize() {
+		int height = system.getHeight(), coefficientWidth = system.getCoefficientWidth();
+		isActive = new boolean[height];
+		rowCounts = new int[height];
+		columnCounts = new int[coefficientWidth];
+		columnRows = new IntList[coefficientWidth];
+		for (int c = 0; c < coefficientWidth; c++) columnRows[c] = new IntList();
+		activeRows = new TreeSet<>((r1, r2) -> rowCounts[r1] != rowCounts[r2] ? Integer.compare(rowCounts[r1], rowCounts[r2]) : Integer.compare(r1, r2));
+		
+		for (int r = 0; r < height; r++) {
+			for (int i = 0; i < system.getRowSize(r); i++) {
+				int c = system.getColumn(r, i);
+				if(c >= coefficientWidth) break;
+				rowCounts[r]++;
+				columnCounts[c]++;
+				columnRows[c].add(r);
+			}
+			isActive[r] = true;
+			if(rowCounts[r] > 0) activeRows.add(r);
+		}
+	}
+	
+	/***Returns the pivot (row, column) with the lowest markowitz cost among the shortest active rows, or null if every active row is zero.*/
+	private int[] findMarkowitzPivot() {
+		int[] best = null;
+		long bestCost = Long.MAX_VALUE;
+		
+		int searched = 0;
+		for (int r : activeRows) {
+			if(searched++ == SEARCH_ROWS || bestCost == 0) break;
+			
+			for (int i = 0; i < system.getRowSize(r); i++) {
+				int c = system.getColumn(r, i);
+				if(c >= system.getCoefficientWidth()) break;
+				
+				long cost = (long) (rowCounts[r] - 1) * (columnCounts[c] - 1);
+				if(cost < bestCost) {
+					bestCost = cost;
+					best = new int[] {r, c};
+				}
+			}
+		}
+		return best;
+	}
+	
+	/***Returns the pivot (row, column) in the first column from the cursor with a non-zero active element, using the shortest row, or null if every active row is zero.*/
+	private int[] findColumnPivot(int cursor) {
+		for (int c = cursor; c < system.getCoefficientWidth(); c++) {
+			if(columnCounts[c] == 0) continue;
+			
+			int best = -1;
+			for (int i = 0; i < columnRows[c].size; i++) {
+				int r = columnRows[c].values[i];
+				if(!isActive[r] || system.isZero(r, c)) continue;
+				if(best < 0 || system.getRowSize(r) < system.getRowSize(best)) best = r;
+			}
+			return new int[] {best, c};
+		}
+		return null;
+	}
+	
+	/***Scales the pivot to one and adds zeroes beneath it, that is in every other active row.*/
+	private void computeColumn(int r1, int c) {
+		
+		//deactivating the pivot row
+		activeRows.remove(r1);
+		isActive[r1] = false;
+		for (int i = 0; i < system.getRowSize(r1); i++) {
+			int column = system.getColumn(r1, i);
+			if(column >= system.getCoefficientWidth()) break;
+			columnCounts[column]--;
+		}
+		
+		Fraction pivot = system.getElement(r1, c);
+		if(!isOne(pivot)) {
+			Fraction scalar = pivot.powNegOne();
+			SparseLinearSystem.scaleRow(system, r1, scalar);
+			output.printRowScale(r1, scalar);
+		}
+		
+		IntList rows = columnRows[c];
+		for (int i = 0; i < rows.size; i++) {
+			int r2 = rows.values[i];
+			if(!isActive[r2] || system.isZero(r2, c)) continue;
+			
+			Fraction scalar = system.getElement(r2, c).negate();
+			activeRows.remove(r2);
+			int[] before = coefficientColumns(r2);
+			
+			SparseLinearSystem.addRows(system, r1, r2, scalar);
+			output.printRowAddition(r1, r2, scalar);
+			
+			updateCounts(r2, before);
+			if(rowCounts[r2] > 0) activeRows.add(r2);
+		}
+	}
+	
+	/***Adds zeroes above the pivot, that is in every other pivot row.*/
+	private void reduceColumn(int r1, int c) {
+		IntList rows = columnRows[c];
+		for (int i = 0; i < rows.size; i++) {
+			int r2 = rows.values[i];
+			if(r2 == r1 || isActive[r2] || system.isZero(r2, c)) continue;
+			
+			Fraction scalar = system.getElement(r2, c).negate();
+			SparseLinearSystem.addRows(system, r1, r2, scalar);
+			output.printRowAddition(r1, r2, scalar);
+		}
+	}
+	
+	/***Updates the counts from the coefficient columns of the row before an addition, recording the fill-in.*/
+	private void updateCounts(int r, int[] before) {
+		int[] after = coefficientColumns(r);
+		
+		int i = 0, j = 0;
+		while(i < before.length || j < after.length) {
+			if(j == after.length || (i < before.length && before[i] < after[j])) {
+				columnCounts[before[i++]]--;
+			}else if(i == before.length || after[j] < before[i]) {
+				columnCounts[after[j]]++;
+				columnRows[after[j++]].add(r);
+			}else {
+				i++;
+				j++;
+			}
+		}
+		rowCounts[r] = after.length;
+	}
+	
+	/***Returns the columns of the non-zero coefficients of the row.*/
+	private int[] coefficientColumns(int r) {
+		int size = 0;
+		while(size < system.getRowSize(r) && system.getColumn(r, size) < system.getCoefficientWidth()) size++;
+		
+		int[] columns = new int[size];
+		for (int i = 0; i < size; i++) columns[i] = system.getColumn(r, i);
+		return columns;
+	}
+	
+	/***Determines inconsistency; Returning true if an active row (whose coefficients are zero) has a non-zero equality, otherwise false.*/
+	private boolean isInconsitent() {
+		for (int r = 0; r < system.getHeight(); r++) {
+			if(!isActive[r] || system.getRowSize(r) == 0) continue;
+			output.printInconsistency(system.getValue(r, 0));
+			return true;
+		}
+		return false;
+	}
+	
+	/***Returns true if the fraction is one.*/
+	private static boolean isOne(Fraction f) {return f.numerator().equals(f.denominator());}
+	
+	/***A growing list of primitive ints.*/
+	private static class IntList {
+		private int[] values = new int[4];
+		private int size;
+		
+		private void add(int value) {
+			if(size == values.length) values = Arrays.copyOf(values, 2 * size);
+			values[size++] = value;
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package matrix.util.linearSystems.solvers;
+
+import matrix.util.Fraction;
+import matrix.util.inputOutput.Snitch;
+import matrix.util.linearSystems.LinearSystem;
+
+/***Classifies the coefficients of a linear system in a single pass over its elements, and solves it by the cheapest path for its structure.
+ * Square coefficients with non-zero pivots that are diagonal or a scaled permutation are solved by a division per element,
+ * and triangular coefficients by substitution, both in proportion to the number of non-zero coefficients.
+ * Coefficients whose non-zero elements lie within a narrow band of the diagonal are solved by BandedElemination, which stores and eliminates only the band,
+ * and everything else by GaussElemination. The structure is reported to the snitch and recorded by the metrics.
+ * The division and substitution are reported as the row operations that give the same reduced row echelon form, without applying them to the system.*/
+public class StructuredSolver implements Solver {
+	
+	/***The structures told apart by the analysis, in the order they are tried.*/
+	public enum Structure {
+		/***Square, with every non-zero coefficient on the diagonal and no zero on it.*/
+		DIAGONAL,
+		/***Square, with exactly one non-zero coefficient in every row and every column.*/
+		PERMUTATION,
+		/***Square, with no non-zero coefficient above the diagonal and no zero on it.*/
+		LOWER_TRIANGULAR,
+		/***Square, with no non-zero coefficient below the diagonal and no zero on it.*/
+		UPPER_TRIANGULAR,
+		/***Square, with every non-zero coefficient at most n / MAX_BAND_RATIO from the diagonal.*/
+		BANDED,
+		/***Anything else.*/
+		GENERAL
+	}
+	
+	//the largest distance of a non-zero coefficient from the diagonal of a banded system, as a fraction of its size
+	public static final int MAX_BAND_RATIO = 8;
+	
+	//fields
+	private Snitch output;
+	private LinearSystem totalMatrix;
+	private SolverMetrics metrics;
+	private Structure structure;
+	private boolean isSolved;
+	
+	//the distances of the non-zero coefficients farthest below and above the diagonal, and the column of the non-zero coefficient of each row
+	private int lowerBandwidth, upperBandwidth;
+	private int[] columns;
+	
+	//constructor
+	public StructuredSolver(Snitch output, LinearSystem totalMatrix) {this(output, totalMatrix, SolverMetrics.DISABLED);}
+	
+	public StructuredSolver(Snitch output, LinearSystem totalMatrix, SolverMetrics metrics) {
+		this.output = output;
+		this.totalMatrix = totalMatrix;
+		this.metrics = metrics;
+		isSolved = false;
+	}
+	
+	/***Getter for is solved boolean.*/
+	@Override
+	public boolean isSolved() {return isSolved;}
+	
+	/***Returns the structure of the coefficients, or null before solving.*/
+	public Structure getStructure() {return structure;}
+	
+	/***Returns the structure of the coefficients of the given system.*/
+	public static Structure classify(LinearSystem system) {
+		StructuredSolver solver = new StructuredSolver(null, system);
+		return solver.classify();
+	}
+	
+	/***Solves the linear system (total matrix) by the path of its structure, leaving the reduced row echelon form in the system.*/
+	@Override
+	public void solve() {
+		structure = classify();
+		metrics.recordStructure(structure);
+		output.printStructure(structure.name(), lowerBandwidth, upperBandwidth);
+		
+		Solver solver = null;
+		switch(structure) {
+		case DIAGONAL:
+		case PERMUTATION: divide(); break;
+		case LOWER_TRIANGULAR: substitute(0, totalMatrix.getHeight(), 1); break;
+		case UPPER_TRIANGULAR: substitute(totalMatrix.getHeight() - 1, -1, -1); break;
+		case BANDED: solver = new BandedElemination(output, totalMatrix); break;
+		case GENERAL: solver = new GaussElemination(output, totalMatrix, null, metrics); break;
+		}
+		
+		if(solver == null) {
+			output.printSystem(totalMatrix);
+			isSolved = true;
+			return;
+		}
+		solver.solve();
+		isSolved = solver.isSolved();
+	}
+	
+	/***Classifies the coefficients, finding the bandwidths and, if every row has a single non-zero coefficient, its columns.*/
+	private Structure classify() {
+		int n = totalMatrix.getCoefficientWidth(), height = totalMatrix.getHeight();
+		lowerBandwidth = upperBandwidth = 0;
+		columns = null;
+		
+		boolean hasZeroDiagonal = false, isPermutation = true;
+		boolean[] isColumnUsed = new boolean[n];
+		int[] rowColumns = new int[height];
+		for (int r = 0; r < height; r++) {
+			int count = 0;
+			for (int c = 0; c < n; c++) {
+				if(totalMatrix.isZero(r, c)) continue;
+				lowerBandwidth = Math.max(lowerBandwidth, r - c);
+				upperBandwidth = Math.max(upperBandwidth, c - r);
+				count++;
+				rowColumns[r] = c;
+			}
+			hasZeroDiagonal |= r >= n || totalMatrix.isZero(r, r);
+			
+			//a permutation has a single non-zero coefficient in every row, and no two in the same column
+			isPermutation &= count == 1 && !isColumnUsed[rowColumns[r]];
+			if(count == 1) isColumnUsed[rowColumns[r]] = true;
+		}
+		
+		if(height != n) return Structure.GENERAL;
+		if(!hasZeroDiagonal && lowerBandwidth == 0 && upperBandwidth == 0) return Structure.DIAGONAL;
+		if(isPermutation) {
+			columns = rowColumns;
+			return Structure.PERMUTATION;
+		}
+		if(!hasZeroDiagonal && upperBandwidth == 0) return Structure.LOWER_TRIANGULAR;
+		if(!hasZeroDiagonal && lowerBandwidth == 0) return Structure.UPPER_TRIANGULAR;
+		if(Math.max(lowerBandwidth, upperBandwidth) * MAX_BAND_RATIO <= n) return Structure.BANDED;
+		return Structure.GENERAL;
+	}
+	
+	/***Solves diagonal or permuted diagonal coefficients, x[c] = e[r] / a[r][c] for the single non-zero a[r][c] of each row.
+	 * Reported as the scale of every row, followed by the swaps moving the row of each column c to row c.*/
+	private void divide() {
+		int n = totalMatrix.getCoefficientWidth();
+		Fraction[][] solution = new Fraction[n][];
+		for (int r = 0; r < n; r++) {
+			int c = columns == null ? r : columns[r];
+			Fraction scalar = totalMatrix.getScalar(r, c);
+			solution[c] = new Fraction[totalMatrix.getWidth() - n];
+			for (int j = 0; j < solution[c].length; j++) solution[c][j] = totalMatrix.getElement(r, n + j).multi(scalar);
+			
+			if(scalar.isOne()) continue;
+			metrics.countRowScale(1 + countNonZero(solution[c]));
+			output.printRowScale(r, scalar);
+		}
+		
+		//the column of the row at each position, until every row is in place
+		if(columns != null) {
+			int[] positions = columns.clone();
+			for (int r = 0; r < n; r++) {
+				while(positions[r] != r) {
+					int c = positions[r];
+					positions[r] = positions[c];
+					positions[c] = c;
+					metrics.countRowSwap();
+					output.printRowSwap(r, c);
+				}
+			}
+		}
+		assign(solution);
+	}
+	
+	/***Solves triangular coefficients by substitution, in the order of the rows from first to end (exclusive) by step.
+	 * Each row is solved for its diagonal element after subtracting the solved elements, skipping its zero coefficients.
+	 * Reported as the addition of every solved row with a non-zero coefficient, followed by the scale of the row.*/
+	private void substitute(int first, int end, int step) {
+		int n = totalMatrix.getCoefficientWidth();
+		Fraction[][] solution = new Fraction[n][];
+		for (int r = first; r != end; r += step) {
+			solution[r] = new Fraction[totalMatrix.getWidth() - n];
+			Fraction scalar = totalMatrix.getScalar(r, r);
+			for (int j = 0; j < solution[r].length; j++) {
+				Fraction sum = totalMatrix.getElement(r, n + j);
+				for (int c = first; c != r; c += step) {
+					if(totalMatrix.isZero(r, c) || solution[c][j].signum() == 0) continue;
+					sum = sum.sub(totalMatrix.getElement(r, c).multi(solution[c][j]));
+				}
+				solution[r][j] = sum.multi(scalar);
+			}
+			
+			//the solved rows are [e_c | x_c], so subtracting a[r][c] of each leaves a[r][r] and the sum
+			for (int c = first; c != r; c += step) {
+				if(totalMatrix.isZero(r, c)) continue;
+				metrics.countRowAddition(1 + countNonZero(solution[c]));
+				output.printRowAddition(c, r, totalMatrix.getElement(r, c).negate());
+			}
+			if(scalar.isOne()) continue;
+			metrics.countRowScale(1 + countNonZero(solution[r]));
+			output.printRowScale(r, scalar);
+		}
+		assign(solution);
+	}
+	
+	/***Returns the number of non-zero elements of the row.*/
+	private static int countNonZero(Fraction[] row) {
+		int count = 0;
+		for (Fraction f : row) {
+			if(f.signum() != 0) count++;
+		}
+		return count;
+	}
+	
+	/***Assigns the reduced row echelon form [I | X] of the given solution to the system.*/
+	private void assign(Fraction[][] solution) {
+		int n = totalMatrix.getCoefficientWidth();
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < totalMatrix.getWidth(); c++) {
+				totalMatrix.setElement(r, c, c < n ? new Fraction(r == c ? 1 : 0) : solution[r][c - n]);
+			}
+		}
+	}
+}
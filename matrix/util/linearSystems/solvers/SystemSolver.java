@@ -1,21 +1,98 @@
 package matrix.util.linearSystems.solvers;
 
+import java.util.concurrent.ForkJoinPool;
+
 import matrix.util.inputOutput.Snitch;
+import matrix.util.linearSystems.CommonDenominatorSystem;
 import matrix.util.linearSystems.LinearSystem;
 
 public class SystemSolver {
 	
+	/***The available elimination methods.*/
+	public enum Method {
+		/***Gauss-Jordan elimination using rational arithmetic.*/
+		GAUSS,
+		/***Gauss-Jordan elimination, updating the rows of large systems in parallel.*/
+		PARALLEL_GAUSS,
+		/***Fraction-free (Bareiss) elimination using integer arithmetic.*/
+		BAREISS,
+		/***Parallel elimination modulo many primes, recovering the fractions by rational reconstruction.*/
+		MODULAR,
+		/***P-adic lifting for square nonsingular coefficients, other systems are solved using MODULAR.*/
+		DIXON,
+		/***Sparse elimination choosing pivots that limit the fill-in (Markowitz).*/
+		SPARSE,
+		/***Gauss-Jordan elimination on rows stored as integers over a common row denominator.*/
+		COMMON_DENOMINATOR_GAUSS,
+		/***Refinement of a double precision solution with exact residuals, systems it cannot solve are solved using GAUSS.*/
+		DOUBLE_REFINEMENT,
+		/***Division, substitution or banded elimination for diagonal, permuted, triangular or banded coefficients, other systems are solved using GAUSS.*/
+		STRUCTURED,
+		/***Decomposition into the independent blocks of the coefficients, solved in parallel using MODULAR.*/
+		BLOCKS
+	}
+	
 	/**Solves the given linear system in place. 
 	 * Prints if isSilent = false. 
 	 * Returns true if the system was solved. 
 	 * Returns false if an inconsistency was found.*/
-	public static boolean solve(LinearSystem system, boolean isSilent) {
-		
-		Snitch output = new Snitch(isSilent);
+	public static boolean solve(LinearSystem system, boolean isSilent) {return solve(system, isSilent, Method.GAUSS);}
+	
+	/**Solves the given linear system in place using the given method. 
+	 * Prints if isSilent = false. 
+	 * Returns true if the system was solved. 
+	 * Returns false if an inconsistency was found.*/
+	public static boolean solve(LinearSystem system, boolean isSilent, Method method) {return solve(system, new Snitch(isSilent), method);}
+	
+	/**Solves the given linear system in place using the given method. 
+	 * Prints if isSilent = false, the system at every checkpointInterval'th step and at the end (see Snitch.FINAL_ONLY). 
+	 * Returns true if the system was solved. 
+	 * Returns false if an inconsistency was found.*/
+	public static boolean solve(LinearSystem system, boolean isSilent, Method method, int checkpointInterval) {return solve(system, new Snitch(isSilent, checkpointInterval), method);}
+	
+	/***Solves the given linear system in place using the given method, reporting the steps to the given snitch. 
+	 * Returns once everything has been printed, after which the snitch holds the log of the row operations. 
+	 * Returns true if the system was solved. 
+	 * Returns false if an inconsistency was found.*/
+	public static boolean solve(LinearSystem system, Snitch output, Method method) {return solve(system, output, method, SolverMetrics.DISABLED);}
+	
+	/***Solves the given linear system in place using the given method, reporting the steps to the given snitch and the measurements to the given metrics. 
+	 * Only the gauss methods measure their phases and row operations, the others measure the total time and the final bit-lengths. 
+	 * Returns true if the system was solved. 
+	 * Returns false if an inconsistency was found.*/
+	public static boolean solve(LinearSystem system, Snitch output, Method method, SolverMetrics metrics) {
+		if(!metrics.isEnabled() && SolverMetrics.isRecording()) metrics = new SolverMetrics();
+		metrics.measureBits(system);
+		long start = metrics.start();
+		output.begin(system, isReplayable(method));
 		
-		GaussElemination gauss = new GaussElemination(output, system);
-		gauss.solve();
+		LinearSystem solved = system;
+		Solver solver = null;
+		switch(method) {
+		case GAUSS: solver = new GaussElemination(output, system, null, metrics); break;
+		case PARALLEL_GAUSS: solver = new GaussElemination(output, system, ForkJoinPool.commonPool(), metrics); break;
+		case BAREISS: solver = new BareissElemination(output, system); break;
+		case MODULAR: solver = new ModularElemination(output, system); break;
+		case DIXON: solver = new DixonLifting(output, system); break;
+		case SPARSE: solver = new SparseElemination(output, system); break;
+		case DOUBLE_REFINEMENT: solver = new DoubleRefinement(output, system); break;
+		case STRUCTURED: solver = new StructuredSolver(output, system, metrics); break;
+		case BLOCKS: solver = new BlockSolver(output, system, Method.MODULAR, metrics); break;
+		case COMMON_DENOMINATOR_GAUSS: 
+			solved = new CommonDenominatorSystem(system);
+			solver = new GaussElemination(output, solved, null, metrics);
+			break;
+		}
+		solver.solve();
 		
-		return gauss.isSolved();
+		if(solved != system) system.assign(solved);
+		metrics.finish(method, system, solver.isSolved(), start);
+		output.finish(solved);
+		return solver.isSolved();
+	}
+	
+	/***Returns true if the method only changes the system through the row operations it reports, such that its checkpoints can be replayed from the log.*/
+	private static boolean isReplayable(Method method) {
+		return method == Method.GAUSS || method == Method.PARALLEL_GAUSS || method == Method.COMMON_DENOMINATOR_GAUSS;
 	}
 }
@@ -0,0 +1,160 @@
+package matrix.util.modular;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/***A matrix over a prime field, stored as primitive longs in the form used by the field (see PrimeField).*/
+public class ModularMatrix {
+	
+	//fields
+	private final PrimeField field;
+	private final long[][] elements;
+	
+	//constructor
+	public ModularMatrix(PrimeField field, long[][] elements) {
+		this.field = field;
+		this.elements = elements;
+	}
+	
+	/***Reduces an integer matrix modulo the prime of the field.*/
+	public static ModularMatrix reduce(BigInteger[][] integerMatrix, PrimeField field) {
+		long[][] elements = new long[integerMatrix.length][];
+		for (int r = 0; r < integerMatrix.length; r++) {
+			elements[r] = new long[integerMatrix[r].length];
+			for (int c = 0; c < elements[r].length; c++) {
+				elements[r][c] = field.reduce(integerMatrix[r][c]);
+			}
+		}
+		return new ModularMatrix(field, elements);
+	}
+	
+	//variables
+	public PrimeField getField() {return field;}
+	public int getWidth() {return elements[0].length;}
+	public int getHeight() {return elements.length;}
+	
+	/***Returns a specific element (in field form).*/
+	public long getElement(int r, int c) {return elements[r][c];}
+	
+	/***Returns a specific row (in field form), the row is not copied.*/
+	public long[] getRow(int r) {return elements[r];}
+	
+	/***Computes the reduced row echelon form in place, only choosing pivots among the first pivotWidth columns. 
+	 * The pivot column of each pivot row is written into pivots, and the rank is returned.*/
+	public int reduceRowEchelon(int pivotWidth, int[] pivots) {
+		int pivotRow = 0;
+		for (int c = 0; c < pivotWidth && pivotRow < elements.length; c++) {
+			
+			//finding a non-zero pivot
+			int r = pivotRow;
+			while(r < elements.length && elements[r][c] == 0) r++;
+			if(r == elements.length) continue;
+			
+			long[] t = elements[r];
+			elements[r] = elements[pivotRow];
+			elements[pivotRow] = t;
+			
+			//scaling the pivot to one
+			long[] source = elements[pivotRow];
+			long inverse = field.inverse(source[c]);
+			for (int j = c; j < source.length; j++) {
+				source[j] = field.multi(source[j], inverse);
+			}
+			
+			//adding zeroes above and beneath the pivot
+			for (int i = 0; i < elements.length; i++) {
+				long[] target = elements[i];
+				if(i == pivotRow || target[c] == 0) continue;
+				
+				long scalar = field.negate(target[c]);
+				for (int j = c; j < target.length; j++) {
+					if(source[j] == 0) continue;
+					target[j] = field.add(target[j], field.multi(scalar, source[j]));
+				}
+			}
+			
+			pivots[pivotRow] = c;
+			pivotRow++;
+		}
+		return pivotRow;
+	}
+	
+	/***Returns the rank modulo the prime, computed in place by forward elimination.*/
+	public int rank() {
+		int pivotRow = 0;
+		for (int c = 0; c < getWidth() && pivotRow < elements.length; c++) {
+			int r = pivotRow;
+			while(r < elements.length && elements[r][c] == 0) r++;
+			if(r == elements.length) continue;
+			
+			swapRows(r, pivotRow);
+			eliminateBelow(pivotRow, c);
+			pivotRow++;
+		}
+		return pivotRow;
+	}
+	
+	/***Returns the determinant (in field form) of the (square) matrix, computed in place by forward elimination.*/
+	public long determinant() {
+		long determinant = field.one();
+		for (int c = 0; c < elements.length; c++) {
+			int r = c;
+			while(r < elements.length && elements[r][c] == 0) r++;
+			if(r == elements.length) return 0;
+			
+			if(r != c) {
+				swapRows(r, c);
+				determinant = field.negate(determinant);
+			}
+			determinant = field.multi(determinant, elements[c][c]);
+			eliminateBelow(c, c);
+		}
+		return determinant;
+	}
+	
+	/***Swaps two rows.*/
+	private void swapRows(int r1, int r2) {
+		long[] t = elements[r1];
+		elements[r1] = elements[r2];
+		elements[r2] = t;
+	}
+	
+	/***Adds zeroes beneath the non-zero pivot at the given row and column, leaving the columns to the left (which are zero) as they are.*/
+	private void eliminateBelow(int pivotRow, int c) {
+		long[] source = elements[pivotRow];
+		long inverse = field.inverse(source[c]);
+		
+		for (int i = pivotRow + 1; i < elements.length; i++) {
+			long[] target = elements[i];
+			if(target[c] == 0) continue;
+			
+			long scalar = field.negate(field.multi(target[c], inverse));
+			for (int j = c; j < target.length; j++) {
+				if(source[j] == 0) continue;
+				target[j] = field.add(target[j], field.multi(scalar, source[j]));
+			}
+		}
+	}
+	
+	/***Returns the inverse of the (square) matrix, or null if it is singular modulo the prime.*/
+	public ModularMatrix inverse() {
+		int n = getHeight();
+		
+		//reducing [matrix | identity] to [identity | inverse]
+		long[][] augmented = new long[n][2 * n];
+		for (int r = 0; r < n; r++) {
+			System.arraycopy(elements[r], 0, augmented[r], 0, n);
+			augmented[r][n + r] = field.one();
+		}
+		
+		ModularMatrix reduced = new ModularMatrix(field, augmented);
+		if(reduced.reduceRowEchelon(n, new int[n]) < n) return null;
+		
+		long[][] inverse = new long[n][];
+		for (int r = 0; r < n; r++) {
+			inverse[r] = Arrays.copyOfRange(augmented[r], n, 2 * n);
+		}
+		return new ModularMatrix(field, inverse);
+	}
+
+}
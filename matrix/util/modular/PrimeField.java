@@ -0,0 +1,144 @@
+package matrix.util.modular;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+
+/***Arithmetic modulo an odd prime below 2^62, using only primitive longs. 
+ * Elements are kept in Montgomery form (a * 2^64 mod p), such that a multiplication is two 64x64 bit products and no division. 
+ * Use toField and fromField to move between ordinary residues and the field.*/
+public class PrimeField {
+	
+	//the largest prime used is below this bound, such that sums of two residues never overflow
+	private static final long PRIME_BOUND = 1L << 62;
+	private static final ArrayList<Long> primes = new ArrayList<>();
+	
+	//fields
+	private final long p, negInverse, r1, r2, r3;
+	private final BigInteger bigP;
+	
+	//constructor
+	public PrimeField(long p) {
+		if(p <= 2 || p >= PRIME_BOUND || (p & 1) == 0) throw new IllegalArgumentException("The prime must be odd and below 2^62: " + p);
+		
+		this.p = p;
+		bigP = BigInteger.valueOf(p);
+		
+		//newton iteration for p^-1 mod 2^64, each step doubles the correct bits
+		long inverse = p;
+		for (int i = 0; i < 5; i++) inverse *= 2 - p * inverse;
+		negInverse = -inverse;
+		
+		BigInteger r = BigInteger.ONE.shiftLeft(Long.SIZE).mod(bigP);
+		r1 = r.longValue();
+		r2 = r.multiply(r).mod(bigP).longValue();
+		r3 = r.pow(3).mod(bigP).longValue();
+	}
+	
+	/***Returns the i'th prime below 2^62 (in descending order), computing and caching them as needed.*/
+	public static long prime(int i) {
+		synchronized(primes) {
+			long candidate = primes.isEmpty() ? PRIME_BOUND - 1 : primes.get(primes.size() - 1) - 2;
+			while(primes.size() <= i) {
+				if(BigInteger.valueOf(candidate).isProbablePrime(64)) primes.add(candidate);
+				candidate -= 2;
+			}
+			return primes.get(i);
+		}
+	}
+	
+	/***Getter for the prime.*/
+	public long prime() {return p;}
+
+	/***Getter for the prime as a big integer.*/
+	public BigInteger bigPrime() {return bigP;}
+	
+	// CONVERSIONS -----------------------------------------------------------------------------------
+	
+	/***Maps a residue in [0, p) into the field.*/
+	public long toField(long residue) {return multi(residue, r2);}
+	
+	/***Maps any long into the field.*/
+	public long reduce(long value) {
+		long residue = value % p;
+		return toField(residue < 0 ? residue + p : residue);
+	}
+	
+	/***Maps any integer into the field.*/
+	public long reduce(BigInteger value) {
+		if(value.bitLength() < Long.SIZE) return reduce(value.longValue());
+		return toField(value.mod(bigP).longValue());
+	}
+	
+	/***Maps an element of the field back to a residue in [0, p).*/
+	public long fromField(long a) {return redc(0, a);}
+	
+	/***Maps an element back to the symmetric range (-p/2, p/2].*/
+	public long fromFieldSymmetric(long a) {
+		long residue = fromField(a);
+		return residue > p >> 1 ? residue - p : residue;
+	}
+	
+	/***The element one.*/
+	public long one() {return r1;}
+	
+	// ARITHMETIC ------------------------------------------------------------------------------------
+	
+	/***Returns a + b.*/
+	public long add(long a, long b) {
+		long s = a + b;
+		return s >= p ? s - p : s;
+	}
+	
+	/***Returns a - b.*/
+	public long sub(long a, long b) {
+		long s = a - b;
+		return s < 0 ? s + p : s;
+	}
+	
+	/***Returns -a.*/
+	public long negate(long a) {return a == 0 ? 0 : p - a;}
+	
+	/***Returns a * b.*/
+	public long multi(long a, long b) {return redc(Math.multiplyHigh(a, b), a * b);}
+	
+	/***Returns a^-1, throwing an ArithmeticException for zero.*/
+	public long inverse(long a) {
+		if(a == 0) throw new ArithmeticException("Zero has no inverse modulo " + p);
+		
+		//a = xR, the euclidean inverse is x^-1 R^-1, which is moved to x^-1 R by multiplying with R^3
+		return multi(euclideanInverse(a), r3);
+	}
+	
+	/***Returns a / b.*/
+	public long div(long a, long b) {return multi(a, inverse(b));}
+	
+	/***Computes a^-1 mod p of an ordinary residue by the extended euclidean algorithm.*/
+	private long euclideanInverse(long a) {
+		long t0 = 0, t1 = 1, r0 = p, r1 = a;
+		while(r1 != 0) {
+			long q = r0 / r1;
+			
+			long r = r0 - q * r1;
+			r0 = r1;
+			r1 = r;
+			
+			long t = t0 - q * t1;
+			t0 = t1;
+			t1 = t;
+		}
+		return t0 < 0 ? t0 + p : t0;
+	}
+	
+	/***Montgomery reduction of the 128 bit value hi:lo, that is hi:lo * 2^-64 mod p.*/
+	private long redc(long hi, long lo) {
+		long m = lo * negInverse;
+		
+		//unsigned high part of m * p, where p is positive
+		long mpHi = Math.multiplyHigh(m, p) + (m < 0 ? p : 0);
+		
+		//the low words sum to zero, carrying one unless both are zero
+		long t = hi + mpHi + (lo != 0 ? 1 : 0);
+		return t >= p ? t - p : t;
+	}
+	
+}
@@ -0,0 +1,75 @@
+package matrix.util.modular;
+
+import java.math.BigInteger;
+
+import matrix.util.Fraction;
+
+/***Combines modular images with the chinese remainder theorem and recovers fractions from residues.*/
+public class RationalReconstruction {
+	
+	/***Given x mod m and an image mod the prime of the field, returns the unique value mod m * p that agrees with both. 
+	 * mInverse is m^-1 in the field and image is in field form.*/
+	public static BigInteger combine(BigInteger x, BigInteger m, PrimeField field, long mInverse, long image) {
+		long delta = field.multi(field.sub(image, field.reduce(x)), mInverse);
+		return x.add(m.multiply(BigInteger.valueOf(field.fromField(delta))));
+	}
+	
+	/***Returns the fraction n/d with n = d * x (mod m) and |n|, d <= sqrt(m / 2), or null if no such fraction exists. 
+	 * When it exists the fraction is unique, so it is the true value as soon as m is large enough.*/
+	public static Fraction reconstruct(BigInteger x, BigInteger m) {
+		BigInteger bound = m.shiftRight(1).sqrt();
+		
+		//extended euclidean algorithm, stopped half way
+		BigInteger r0 = m, r1 = x.mod(m);
+		BigInteger t0 = BigInteger.ZERO, t1 = BigInteger.ONE;
+		while(r1.compareTo(bound) > 0) {
+			BigInteger[] qr = r0.divideAndRemainder(r1);
+			r0 = r1;
+			r1 = qr[1];
+			
+			BigInteger t = t0.subtract(qr[0].multiply(t1));
+			t0 = t1;
+			t1 = t;
+		}
+		
+		if(t1.abs().compareTo(bound) > 0 || !r1.gcd(t1).equals(BigInteger.ONE)) return null;
+		if(t1.signum() < 0) return new Fraction(r1.negate(), t1.negate());
+		return new Fraction(r1, t1);
+	}
+	
+	/***Reconstructs every value, returning null if one of them cannot be reconstructed yet. 
+	 * The solutions of a system mostly share a denominator, so a value is first tried over the common denominator of the previous values, 
+	 * which costs a single multiplication instead of a euclidean algorithm.*/
+	public static Fraction[] reconstruct(BigInteger[] x, BigInteger m) {
+		BigInteger bound = m.shiftRight(1).sqrt();
+		BigInteger half = m.shiftRight(1);
+		
+		Fraction[] fractions = new Fraction[x.length];
+		BigInteger denominator = BigInteger.ONE;
+		for (int i = 0; i < x.length; i++) {
+			
+			//y = denominator * x in the symmetric range, y / denominator is the unique fraction if both are within the bound
+			BigInteger y = denominator.multiply(x[i]).mod(m);
+			if(y.compareTo(half) > 0) y = y.subtract(m);
+			if(y.abs().compareTo(bound) <= 0 && denominator.compareTo(bound) <= 0) {
+				fractions[i] = Fraction.simplify(y, denominator);
+				continue;
+			}
+			
+			fractions[i] = reconstruct(x[i], m);
+			if(fractions[i] == null) return null;
+			
+			BigInteger d = fractions[i].denominator();
+			denominator = denominator.divide(denominator.gcd(d)).multiply(d);
+		}
+		return fractions;
+	}
+	
+	/***Reduces a fraction into the field, returning -1 if its denominator is divisible by the prime.*/
+	public static long reduce(Fraction f, PrimeField field) {
+		long denominator = field.reduce(f.denominator());
+		if(denominator == 0) return -1;
+		return field.div(field.reduce(f.numerator()), denominator);
+	}
+	
+}
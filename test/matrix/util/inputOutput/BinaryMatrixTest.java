@@ -0,0 +1,22 @@
+package matrix.util.inputOutput;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+class BinaryMatrixTest {
+
+	@Test
+	void rejectsASizeBeyondTheRemainingBytes() {
+		//the magic number, the version and a 2147483647x2147483647 size without elements
+		ByteBuffer buffer = ByteBuffer.wrap(new byte[] {
+				0x4C, 0x53, 0x59, 0x4D, 1,
+				(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07,
+				(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07,
+				0});
+		assertThrows(IOException.class, () -> BinaryMatrix.readMatrix(buffer));
+	}
+}
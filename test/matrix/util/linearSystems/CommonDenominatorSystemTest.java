@@ -0,0 +1,43 @@
+package matrix.util.linearSystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import org.junit.jupiter.api.Test;
+
+import matrix.util.Fraction;
+import matrix.util.FractionMatrix;
+
+class CommonDenominatorSystemTest {
+
+	/***Returns the common denominator system of [1/2 2/3 | 3; 4 5/6 | 6].*/
+	private static CommonDenominatorSystem system() {
+		Fraction[][] elements = {
+				{new Fraction(1, 2), new Fraction(2, 3), new Fraction(3)},
+				{new Fraction(4), new Fraction(5, 6), new Fraction(6)}};
+		return new CommonDenominatorSystem(new LinearSystem(new FractionMatrix(elements), 2));
+	}
+
+	/***Asserts that the copy has the elements of the system and does not share its rows.*/
+	private static void assertCopy(CommonDenominatorSystem system, CommonDenominatorSystem copy) {
+		assertNotSame(system, copy);
+		assertEquals(system.getCoefficientWidth(), copy.getCoefficientWidth());
+		assertEquals(FractionMatrix.toString(system), FractionMatrix.toString(copy));
+
+		copy.setElement(0, 0, new Fraction(7));
+		assertEquals(new Fraction(1, 2).toString(), system.getElement(0, 0).toString());
+		assertEquals(new Fraction(7).toString(), copy.getElement(0, 0).toString());
+	}
+
+	@Test
+	void cloneCopiesTheRows() {
+		CommonDenominatorSystem system = system();
+		assertCopy(system, system.clone());
+	}
+
+	@Test
+	void copyConstructorCopiesTheRows() {
+		CommonDenominatorSystem system = system();
+		assertCopy(system, new CommonDenominatorSystem(system));
+	}
+}